@@ -0,0 +1,270 @@
+/**
+ * The CompactGroveTree class stores a binary tree of magical coins as a struct of arrays instead of a graph
+ * of `TreeNode` objects, and finds the largest magical grove directly on that representation.
+ *
+ * Representation:
+ * - Node `i` has value `val[i]` and children `left[i]` / `right[i]` (-1 when the child is missing).
+ * - Nodes are numbered in level order, so the root is node 0 and every child has a larger index than its parent.
+ *   All loaders below keep this invariant, which lets the grove pass run as a plain reverse loop without recursion.
+ *
+ * Loaders:
+ * 1. `fromLevelOrder` builds the arrays from a level-order value array where a marker value stands for a missing child
+ *    (the same layout as the usual "[1, 4, 3, 2, 4, 2, 5, null, null, null, null, null, null, 4, 6]" examples).
+ * 2. `fromBinaryFile` memory-maps a file of big-endian ints in that level-order layout, using `NULL_MARKER`
+ *    (Integer.MIN_VALUE) for gaps. A node with the value Integer.MIN_VALUE can still be held in memory, but it cannot
+ *    be told apart from a gap in a level-order array, so `toLevelOrder` and `writeBinaryFile` reject it.
+ * 3. `fromTreeNode` converts an existing `TreeNode` graph with a breadth-first walk.
+ *
+ * The `findLargestMagicalGrove` method:
+ * 1. Walks the node indices from the last to the first, so both subtrees of a node are finished before the node itself.
+ * 2. Keeps the (maxSum, min, max) summary of every subtree in three int arrays, with exactly the same rules
+ *    as `MagicalGroveFinder.findLargestMagicalGroveHelper`, so both return the same answer for the same tree.
+ *
+ * Time Complexity:
+ * Loading and the grove pass are both O(n), where n is the number of nodes. The pass touches the arrays sequentially,
+ * and each node costs 12 bytes of tree data plus 12 bytes of summary data instead of a separate heap object per node.
+ */
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class CompactGroveTree {
+
+    // Marker used for a missing child in binary level-order files
+    public static final int NULL_MARKER = Integer.MIN_VALUE;
+
+    final int[] val;   // Value of each node (magical coins)
+    final int[] left;  // Index of the left child, or -1
+    final int[] right; // Index of the right child, or -1
+    final int size;    // Number of nodes in the tree
+
+    private CompactGroveTree(int[] val, int[] left, int[] right, int size) {
+        this.val = val;
+        this.left = left;
+        this.right = right;
+        this.size = size;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Builds a tree from a level-order array where nullMarker stands for a missing child
+    public static CompactGroveTree fromLevelOrder(int[] values, int nullMarker) {
+        if (values.length == 0 || values[0] == nullMarker) {
+            return new CompactGroveTree(new int[0], new int[0], new int[0], 0);
+        }
+
+        // Every non-null entry becomes a node, so count them first to size the arrays exactly
+        int count = 0;
+        for (int v : values) {
+            if (v != nullMarker) {
+                count++;
+            }
+        }
+        int[] val = new int[count];
+        int[] left = new int[count];
+        int[] right = new int[count];
+        Arrays.fill(left, -1);
+        Arrays.fill(right, -1);
+
+        // Nodes are created in level order, so the parents waiting for children are simply the nodes 0, 1, 2, ...
+        val[0] = values[0];
+        int created = 1; // Number of nodes created so far (also the index of the next node)
+        int parent = 0;  // Node whose children are read next
+        int cursor = 1;  // Position in the values array
+        while (cursor < values.length && parent < created) {
+            int leftValue = values[cursor++];
+            if (leftValue != nullMarker) {
+                val[created] = leftValue;
+                left[parent] = created++;
+            }
+            if (cursor < values.length) {
+                int rightValue = values[cursor++];
+                if (rightValue != nullMarker) {
+                    val[created] = rightValue;
+                    right[parent] = created++;
+                }
+            }
+            parent++;
+        }
+
+        // Entries after the last node with free child slots are not reachable
+        return new CompactGroveTree(val, left, right, created);
+    }
+
+    // Loads a tree from a file of big-endian ints in level order, with NULL_MARKER for missing children
+    public static CompactGroveTree fromBinaryFile(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long bytes = channel.size();
+            if (bytes % Integer.BYTES != 0 || bytes / Integer.BYTES > Integer.MAX_VALUE - 8) {
+                throw new IOException("Not a level-order int file: " + path);
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, bytes);
+            IntBuffer ints = mapped.order(ByteOrder.BIG_ENDIAN).asIntBuffer();
+            int[] values = new int[ints.remaining()];
+            ints.get(values);
+            return fromLevelOrder(values, NULL_MARKER);
+        }
+    }
+
+    // Writes the tree as big-endian ints in level order, readable by fromBinaryFile; a node valued NULL_MARKER is rejected
+    public void writeBinaryFile(Path path) throws IOException {
+        int[] values = toLevelOrder(NULL_MARKER);
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024).order(ByteOrder.BIG_ENDIAN);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (int v : values) {
+                if (!buffer.hasRemaining()) {
+                    buffer.flip();
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                    buffer.clear();
+                }
+                buffer.putInt(v);
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    // Produces the level-order array of the tree, trimming trailing missing children
+    public int[] toLevelOrder(int nullMarker) {
+        if (size == 0) {
+            return new int[0];
+        }
+        for (int i = 0; i < size; i++) {
+            if (val[i] == nullMarker) {
+                throw new IllegalArgumentException("Node " + i + " has the value " + nullMarker
+                        + ", which is the marker for a missing child in level order");
+            }
+        }
+        int[] values = new int[1 + 2 * size];
+        values[0] = val[0];
+        int length = 1;
+        int lastNode = 1; // Length up to and including the last real node
+        for (int i = 0; i < size; i++) {
+            values[length++] = left[i] < 0 ? nullMarker : val[left[i]];
+            if (left[i] >= 0) lastNode = length;
+            values[length++] = right[i] < 0 ? nullMarker : val[right[i]];
+            if (right[i] >= 0) lastNode = length;
+        }
+        return Arrays.copyOf(values, lastNode);
+    }
+
+    // Converts a TreeNode graph into the compact form using a breadth-first walk
+    public static CompactGroveTree fromTreeNode(TreeNode root) {
+        if (root == null) {
+            return new CompactGroveTree(new int[0], new int[0], new int[0], 0);
+        }
+
+        // The list doubles as the BFS queue: a child's index is the list size at the moment it is added
+        List<TreeNode> order = new ArrayList<>();
+        order.add(root);
+        int[] left = new int[16];
+        int[] right = new int[16];
+        for (int i = 0; i < order.size(); i++) {
+            if (i == left.length) {
+                left = Arrays.copyOf(left, left.length * 2);
+                right = Arrays.copyOf(right, right.length * 2);
+            }
+            TreeNode node = order.get(i);
+            left[i] = -1;
+            right[i] = -1;
+            if (node.left != null) {
+                left[i] = order.size();
+                order.add(node.left);
+            }
+            if (node.right != null) {
+                right[i] = order.size();
+                order.add(node.right);
+            }
+        }
+
+        int n = order.size();
+        int[] val = new int[n];
+        for (int i = 0; i < n; i++) {
+            val[i] = order.get(i).val;
+        }
+        return new CompactGroveTree(val, Arrays.copyOf(left, n), Arrays.copyOf(right, n), n);
+    }
+
+    // Finds the largest magical grove sum, matching MagicalGroveFinder.findLargestMagicalGrove
+    public int findLargestMagicalGrove() {
+        if (size == 0) {
+            return 0;
+        }
+        int[] sum = new int[size];
+        int[] min = new int[size];
+        int[] max = new int[size];
+        // Children always have larger indices, so walking backwards visits every subtree before its parent
+        for (int i = size - 1; i >= 0; i--) {
+            summarize(i, sum, min, max);
+        }
+        return sum[0];
+    }
+
+    // Computes the (maxSum, min, max) summary of node i from the summaries of its children
+    void summarize(int i, int[] sum, int[] min, int[] max) {
+        int l = left[i];
+        int r = right[i];
+        // Missing children behave like the null case of the recursive helper: (0, MAX_VALUE, MIN_VALUE)
+        int leftSum = l < 0 ? 0 : sum[l];
+        int leftMin = l < 0 ? Integer.MAX_VALUE : min[l];
+        int leftMax = l < 0 ? Integer.MIN_VALUE : max[l];
+        int rightSum = r < 0 ? 0 : sum[r];
+        int rightMin = r < 0 ? Integer.MAX_VALUE : min[r];
+        int rightMax = r < 0 ? Integer.MIN_VALUE : max[r];
+
+        int value = val[i];
+        if (value > leftMax && value < rightMin) {
+            // Node forms a valid grove together with both subtrees
+            sum[i] = value + leftSum + rightSum;
+            min[i] = Math.min(value, leftMin);
+            max[i] = Math.max(value, rightMax);
+        } else {
+            // Not a valid grove: keep the best sum below and block every ancestor from forming a grove
+            sum[i] = Math.max(leftSum, rightSum);
+            min[i] = Integer.MIN_VALUE;
+            max[i] = Integer.MAX_VALUE;
+        }
+    }
+
+    // Main method comparing the compact pass with the recursive finder on the example tree
+    public static void main(String[] args) throws IOException {
+        int n = NULL_MARKER;
+        int[] levelOrder = {1, 4, 3, 2, 4, 2, 5, n, n, n, n, n, n, 4, 6};
+        CompactGroveTree tree = fromLevelOrder(levelOrder, NULL_MARKER);
+        System.out.println("Largest Magical Grove Sum (compact): " + tree.findLargestMagicalGrove()); // Output: 20
+
+        // Round trip through a binary file
+        Path file = java.nio.file.Files.createTempFile("grove", ".bin");
+        tree.writeBinaryFile(file);
+        CompactGroveTree loaded = fromBinaryFile(file);
+        java.nio.file.Files.delete(file);
+        System.out.println("Largest Magical Grove Sum (from file): " + loaded.findLargestMagicalGrove()); // Output: 20
+
+        // Conversion from the pointer-based tree
+        TreeNode root = new TreeNode(1);
+        root.left = new TreeNode(4);
+        root.right = new TreeNode(3);
+        root.left.left = new TreeNode(2);
+        root.left.right = new TreeNode(4);
+        root.right.left = new TreeNode(2);
+        root.right.right = new TreeNode(5);
+        root.right.right.left = new TreeNode(4);
+        root.right.right.right = new TreeNode(6);
+        System.out.println("Largest Magical Grove Sum (converted): " + fromTreeNode(root).findLargestMagicalGrove()); // Output: 20
+    }
+}
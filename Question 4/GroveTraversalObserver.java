@@ -0,0 +1,136 @@
+/**
+ * The GroveTraversalObserver interface receives callbacks from `MagicalGroveFinder` while it walks the tree.
+ *
+ * Implementations:
+ * 1. `NONE` ignores every callback. `MagicalGroveFinder` recognises it and skips the callbacks entirely, so a quiet
+ *    traversal makes no observer calls, no matter which other observers the JVM has loaded.
+ * 2. `CONSOLE` prints the same step-by-step messages the finder has always printed.
+ * 3. `Stats` counts visited nodes, null children and valid groves, tracks the maximum depth and times the traversal.
+ *
+ * Depth is counted from the root, which is at depth 0; null children are one level below their parent.
+ */
+public interface GroveTraversalObserver {
+
+    // Observer that ignores every callback
+    GroveTraversalObserver NONE = new GroveTraversalObserver() {
+    };
+
+    // Observer that prints every step of the traversal
+    GroveTraversalObserver CONSOLE = new GroveTraversalObserver() {
+        @Override
+        public void onNullChild(int depth) {
+            System.out.println("Node is null. Returning result: (0, " + Integer.MAX_VALUE + ", " + Integer.MIN_VALUE + ")");
+        }
+
+        @Override
+        public void onNode(TreeNode node, Result left, Result right, int depth) {
+            System.out.println("Processing node: " + node.val);
+            System.out.println("Left subtree result: maxSum = " + left.maxSum + ", min = " + left.min + ", max = " + left.max);
+            System.out.println("Right subtree result: maxSum = " + right.maxSum + ", min = " + right.min + ", max = " + right.max);
+        }
+
+        @Override
+        public void onValidGrove(TreeNode node, int sum) {
+            System.out.println("Node " + node.val + " forms a valid grove with sum = " + sum);
+        }
+
+        @Override
+        public void onInvalidGrove(TreeNode node, int maxSum) {
+            System.out.println("Node " + node.val + " does not form a valid grove. Returning maxSum = " + maxSum);
+        }
+    };
+
+    // Called once before the traversal starts
+    default void onTraversalStart() {
+    }
+
+    // Called once after the traversal, with the final maximum grove sum
+    default void onTraversalEnd(int maxSum) {
+    }
+
+    // Called for every missing child
+    default void onNullChild(int depth) {
+    }
+
+    // Called for every node after both of its subtrees are processed
+    default void onNode(TreeNode node, Result left, Result right, int depth) {
+    }
+
+    // Called when a node forms a valid grove with its subtrees
+    default void onValidGrove(TreeNode node, int sum) {
+    }
+
+    // Called when a node does not form a valid grove
+    default void onInvalidGrove(TreeNode node, int maxSum) {
+    }
+
+    // Observer collecting counters and timing for a traversal
+    class Stats implements GroveTraversalObserver {
+        private long nodesVisited;
+        private long nullChildren;
+        private long validGroves;
+        private int maxDepth = -1;
+        private long startNanos;
+        private long elapsedNanos;
+
+        @Override
+        public void onTraversalStart() {
+            nodesVisited = 0;
+            nullChildren = 0;
+            validGroves = 0;
+            maxDepth = -1;
+            elapsedNanos = 0;
+            startNanos = System.nanoTime();
+        }
+
+        @Override
+        public void onTraversalEnd(int maxSum) {
+            elapsedNanos = System.nanoTime() - startNanos;
+        }
+
+        @Override
+        public void onNullChild(int depth) {
+            nullChildren++;
+        }
+
+        @Override
+        public void onNode(TreeNode node, Result left, Result right, int depth) {
+            nodesVisited++;
+            if (depth > maxDepth) {
+                maxDepth = depth;
+            }
+        }
+
+        @Override
+        public void onValidGrove(TreeNode node, int sum) {
+            validGroves++;
+        }
+
+        public long getNodesVisited() {
+            return nodesVisited;
+        }
+
+        public long getNullChildren() {
+            return nullChildren;
+        }
+
+        public long getValidGroves() {
+            return validGroves;
+        }
+
+        public int getMaxDepth() {
+            return maxDepth;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return "Nodes visited: " + nodesVisited + ", null children: " + nullChildren
+                    + ", valid groves: " + validGroves + ", max depth: " + maxDepth
+                    + ", time: " + (elapsedNanos / 1_000) + " us";
+        }
+    }
+}
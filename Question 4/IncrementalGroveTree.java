@@ -0,0 +1,89 @@
+/**
+ * The IncrementalGroveTree class keeps the largest magical grove sum of a `CompactGroveTree` up to date
+ * while node values (coin counts) change in place.
+ *
+ * How it works:
+ * 1. On construction it runs the same bottom-up pass as `CompactGroveTree.findLargestMagicalGrove`, but keeps the
+ *    (maxSum, min, max) summary of every subtree instead of throwing it away, and records each node's parent.
+ * 2. `updateValue` changes one node's value and recomputes the summaries on the path from that node to the root.
+ *    A subtree summary depends only on the node's value and its children's summaries, so the walk stops as soon
+ *    as a recomputed summary is unchanged.
+ * 3. `findLargestMagicalGrove` reads the cached summary of the root.
+ *
+ * Time Complexity:
+ * - Construction: O(n), where n is the number of nodes.
+ * - `updateValue`: O(h), where h is the height of the tree (often less thanks to the early stop).
+ * - `findLargestMagicalGrove`: O(1).
+ */
+public class IncrementalGroveTree {
+
+    private final CompactGroveTree tree; // Tree whose values are updated in place
+    private final int[] parent;          // Parent of each node, or -1 for the root
+    private final int[] sum;             // Cached maxSum of each subtree
+    private final int[] min;             // Cached min of each subtree
+    private final int[] max;             // Cached max of each subtree
+
+    public IncrementalGroveTree(CompactGroveTree tree) {
+        this.tree = tree;
+        int n = tree.size;
+        this.parent = new int[n];
+        this.sum = new int[n];
+        this.min = new int[n];
+        this.max = new int[n];
+
+        if (n > 0) {
+            parent[0] = -1;
+        }
+        // Children have larger indices than their parents, so one backward pass fills every summary
+        for (int i = n - 1; i >= 0; i--) {
+            if (tree.left[i] >= 0) parent[tree.left[i]] = i;
+            if (tree.right[i] >= 0) parent[tree.right[i]] = i;
+            tree.summarize(i, sum, min, max);
+        }
+    }
+
+    // Returns the largest magical grove sum of the whole tree
+    public int findLargestMagicalGrove() {
+        return tree.size == 0 ? 0 : sum[0];
+    }
+
+    // Returns the current value of a node
+    public int getValue(int node) {
+        return tree.val[node];
+    }
+
+    // Sets a node's value and repairs the cached summaries on the path to the root
+    public void updateValue(int node, int value) {
+        if (node < 0 || node >= tree.size) {
+            throw new IndexOutOfBoundsException("Node " + node + " is not in a tree of " + tree.size + " nodes");
+        }
+        tree.val[node] = value;
+
+        for (int i = node; i >= 0; i = parent[i]) {
+            int oldSum = sum[i];
+            int oldMin = min[i];
+            int oldMax = max[i];
+            tree.summarize(i, sum, min, max);
+            // Ancestors only see this node through its summary, so nothing above can change any more
+            if (sum[i] == oldSum && min[i] == oldMin && max[i] == oldMax) {
+                break;
+            }
+        }
+    }
+
+    // Main method demonstrating updates on the example tree
+    public static void main(String[] args) {
+        int n = CompactGroveTree.NULL_MARKER;
+        int[] levelOrder = {1, 4, 3, 2, 4, 2, 5, n, n, n, n, n, n, 4, 6};
+        IncrementalGroveTree grove = new IncrementalGroveTree(CompactGroveTree.fromLevelOrder(levelOrder, n));
+        System.out.println("Largest Magical Grove Sum: " + grove.findLargestMagicalGrove()); // Output: 20
+
+        // Node 2 is the root's right child (value 3); with 1 it no longer beats its left child 2
+        grove.updateValue(2, 1);
+        System.out.println("After setting node 2 to 1: " + grove.findLargestMagicalGrove()); // Output: 15
+
+        // Node 5 (value 2, left child of node 2) dropping to 0 makes node 2 a valid grove again
+        grove.updateValue(5, 0);
+        System.out.println("After setting node 5 to 0: " + grove.findLargestMagicalGrove()); // Output: 16
+    }
+}
@@ -10,62 +10,62 @@
  * 2. The helper method `findLargestMagicalGroveHelper` checks if the current node forms a valid magical grove 
  *    and computes the sum of coins if it does.
  * 3. If the current node does not form a valid grove, it returns the maximum sum of coins from the subtrees.
+ * 4. Every step is reported to a `GroveTraversalObserver`: the default one prints the steps to the console,
+ *    `GroveTraversalObserver.NONE` keeps the traversal quiet and `GroveTraversalObserver.Stats` collects counters and timing.
+ *    Every callback is guarded by a final flag that is false for NONE, so a quiet traversal costs one predictable
+ *    branch per callback and no virtual call.
  * 
  * Time Complexity:
  * The time complexity of the solution is O(n), where n is the number of nodes in the binary tree.
  * This is because each node in the tree is visited once during the traversal.
  */
-// TreeNode class represents a node in the binary tree
-class TreeNode {
-    int val;        // Value of the node (magical coin)
-    TreeNode left;  // Left child of the node
-    TreeNode right; // Right child of the node
-
-    // Constructor to initialize the node with a value
-    TreeNode(int x) {
-        val = x;
-    }
-}
+// MagicalGroveFinder class finds the largest magical grove in the binary tree
+public class MagicalGroveFinder {
 
-// Result class stores the result of each subtree traversal
-class Result {
-    int maxSum; // Maximum sum of coins in the subtree
-    int min;    // Minimum value in the subtree
-    int max;    // Maximum value in the subtree
+    private final GroveTraversalObserver observer; // Receives a callback for every step of the traversal
+    private final boolean observing; // False for GroveTraversalObserver.NONE, whose callbacks are skipped
 
-    // Constructor to initialize the result with maxSum, min, and max values
-    Result(int maxSum, int min, int max) {
-        this.maxSum = maxSum;
-        this.min = min;
-        this.max = max;
+    // Creates a finder that prints every step of the traversal
+    public MagicalGroveFinder() {
+        this(GroveTraversalObserver.CONSOLE);
     }
-}
 
-// MagicalGroveFinder class finds the largest magical grove in the binary tree
-public class MagicalGroveFinder {
+    // Creates a finder reporting to the given observer (GroveTraversalObserver.NONE for a quiet run)
+    public MagicalGroveFinder(GroveTraversalObserver observer) {
+        this.observer = observer;
+        this.observing = observer != GroveTraversalObserver.NONE;
+    }
 
     // Method to find the largest magical grove sum starting from the root node
     public int findLargestMagicalGrove(TreeNode root) {
-        Result result = findLargestMagicalGroveHelper(root); // Call helper method to find the result
+        if (observing) {
+            observer.onTraversalStart();
+        }
+        Result result = findLargestMagicalGroveHelper(root, 0); // Call helper method to find the result
+        if (observing) {
+            observer.onTraversalEnd(result.maxSum);
+        }
         return result.maxSum; // Return the maximum sum found
     }
 
     // Helper method to recursively find the largest magical grove starting from a given node
-    private Result findLargestMagicalGroveHelper(TreeNode node) {
+    private Result findLargestMagicalGroveHelper(TreeNode node, int depth) {
         // Base case: If the node is null (no subtree), return a result with 0 sum, and extreme min and max values
         if (node == null) {
-            System.out.println("Node is null. Returning result: (0, " + Integer.MAX_VALUE + ", " + Integer.MIN_VALUE + ")");
+            if (observing) {
+                observer.onNullChild(depth);
+            }
             return new Result(0, Integer.MAX_VALUE, Integer.MIN_VALUE);
         }
 
         // Recursively find results for the left and right subtrees
-        Result left = findLargestMagicalGroveHelper(node.left);
-        Result right = findLargestMagicalGroveHelper(node.right);
+        Result left = findLargestMagicalGroveHelper(node.left, depth + 1);
+        Result right = findLargestMagicalGroveHelper(node.right, depth + 1);
 
-        // Print information about the current node and its subtrees (for understanding the recursion)
-        System.out.println("Processing node: " + node.val);
-        System.out.println("Left subtree result: maxSum = " + left.maxSum + ", min = " + left.min + ", max = " + left.max);
-        System.out.println("Right subtree result: maxSum = " + right.maxSum + ", min = " + right.min + ", max = " + right.max);
+        // Report the current node and its subtrees (printed by the console observer to follow the recursion)
+        if (observing) {
+            observer.onNode(node, left, right, depth);
+        }
 
         // Check if the current node itself can form a valid magical grove
         if (node.val > left.max && node.val < right.min) {
@@ -76,8 +76,10 @@ public class MagicalGroveFinder {
             int max = Math.max(node.val, right.max);
             // Create a new result with the calculated sum, min, and max values
             Result result = new Result(sum, min, max);
-            // Print a message indicating that the current node forms a valid grove with the calculated sum
-            System.out.println("Node " + node.val + " forms a valid grove with sum = " + sum);
+            // Report that the current node forms a valid grove with the calculated sum
+            if (observing) {
+                observer.onValidGrove(node, sum);
+            }
             // Return the result for the current node
             return result;
         } else {
@@ -85,8 +87,10 @@ public class MagicalGroveFinder {
             int maxSum = Math.max(left.maxSum, right.maxSum);
             // Create a result with the maximum sum found so far and extreme min and max values
             Result result = new Result(maxSum, Integer.MIN_VALUE, Integer.MAX_VALUE);
-            // Print a message indicating that the current node does not form a valid grove
-            System.out.println("Node " + node.val + " does not form a valid grove. Returning maxSum = " + maxSum);
+            // Report that the current node does not form a valid grove
+            if (observing) {
+                observer.onInvalidGrove(node, maxSum);
+            }
             // Return the result for the current node
             return result;
         }
@@ -111,5 +115,10 @@ public class MagicalGroveFinder {
         int largestGroveSum = finder.findLargestMagicalGrove(root);
         // Print the largest magical grove sum found
         System.out.println("Largest Magical Grove Sum: " + largestGroveSum); // Output: 20
+
+        // Run the same search quietly and print only the traversal statistics
+        GroveTraversalObserver.Stats stats = new GroveTraversalObserver.Stats();
+        int quietSum = new MagicalGroveFinder(stats).findLargestMagicalGrove(root);
+        System.out.println("Quiet run sum: " + quietSum + " (" + stats + ")");
     }
 }
@@ -0,0 +1,230 @@
+/**
+ * The ParallelGroveFinder class computes the same largest magical grove sum as `MagicalGroveFinder`,
+ * but splits the tree across the fork/join common pool.
+ *
+ * The result for a node depends only on the results of its two subtrees, so the recursion of
+ * `findLargestMagicalGroveHelper` maps directly onto a `RecursiveTask`:
+ * 1. `GroveTask` first walks down any chain of nodes with a single child, since there is nothing to split there,
+ *    until it reaches a node with two children (or a leaf). The chain is folded back up with `combine` afterwards.
+ * 2. At a node with two children it forks the right subtree, computes the left subtree itself and joins the right one.
+ * 3. When the pool already has enough work it switches to `computeSequentially`, an iterative post-order walk with
+ *    an explicit stack, so deep or lopsided trees cannot overflow the thread stack.
+ * 4. Results are combined with exactly the same rules as the sequential helper, so the answer is deterministic
+ *    and identical to the sequential one no matter how the work was scheduled.
+ *
+ * Cutoff:
+ * `TreeNode` does not record subtree sizes, so instead of guessing them the task asks the pool: it keeps forking
+ * while its worker has at most `maxSurplusTasks` queued tasks that no other worker has stolen
+ * (`getSurplusQueuedTaskCount`), and finishes its subtree sequentially once the others have enough to do. Forks nest
+ * at most MAX_FORK_DEPTH deep, which bounds the recursion of the tasks themselves on degenerate trees.
+ *
+ * Time Complexity:
+ * O(n) total work, where n is the number of nodes, and O(n / p + height) time on p workers for balanced trees.
+ */
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+public class ParallelGroveFinder {
+
+    // Default number of unstolen queued tasks per worker above which the traversal runs sequentially
+    public static final int DEFAULT_MAX_SURPLUS_TASKS = 3;
+
+    // Maximum nesting of forks, deep enough for any balanced tree and small enough for the thread stack
+    private static final int MAX_FORK_DEPTH = 64;
+
+    private final int maxSurplusTasks;
+
+    public ParallelGroveFinder() {
+        this(DEFAULT_MAX_SURPLUS_TASKS);
+    }
+
+    public ParallelGroveFinder(int maxSurplusTasks) {
+        this.maxSurplusTasks = Math.max(0, maxSurplusTasks);
+    }
+
+    // Finds the largest magical grove sum using the common fork/join pool
+    public int findLargestMagicalGrove(TreeNode root) {
+        return findLargestMagicalGrove(root, ForkJoinPool.commonPool());
+    }
+
+    // Finds the largest magical grove sum using the given pool
+    public int findLargestMagicalGrove(TreeNode root, ForkJoinPool pool) {
+        return pool.invoke(new GroveTask(root, 0)).maxSum;
+    }
+
+    // Task computing the grove result of one subtree
+    private class GroveTask extends RecursiveTask<Result> {
+        private static final long serialVersionUID = 1L;
+
+        private final TreeNode node;
+        private final int forkDepth; // Number of forks above this task
+
+        GroveTask(TreeNode node, int forkDepth) {
+            this.node = node;
+            this.forkDepth = forkDepth;
+        }
+
+        @Override
+        protected Result compute() {
+            // Walk down to the first node that has two children or none; the nodes passed are folded in afterwards
+            List<TreeNode> chain = new ArrayList<>();
+            TreeNode current = node;
+            while (current != null && (current.left == null) != (current.right == null)) {
+                chain.add(current);
+                current = current.left != null ? current.left : current.right;
+            }
+
+            Result result;
+            if (current == null || current.left == null) {
+                result = current == null ? empty() : combine(current.val, empty(), empty());
+            } else if (forkDepth >= MAX_FORK_DEPTH || getSurplusQueuedTaskCount() > maxSurplusTasks) {
+                // The other workers have enough to do, so splitting further would only add overhead
+                result = computeSequentially(current);
+            } else {
+                GroveTask rightTask = new GroveTask(current.right, forkDepth + 1);
+                rightTask.fork();
+                Result left = new GroveTask(current.left, forkDepth + 1).compute();
+                Result right = rightTask.join();
+                result = combine(current.val, left, right);
+            }
+
+            for (int i = chain.size() - 1; i >= 0; i--) {
+                TreeNode parent = chain.get(i);
+                result = parent.left != null ? combine(parent.val, result, empty()) : combine(parent.val, empty(), result);
+            }
+            return result;
+        }
+    }
+
+    // Sequential version of the recursive helper, without the debugging output; iterative, so any depth is fine
+    static Result computeSequentially(TreeNode root) {
+        if (root == null) {
+            return empty();
+        }
+        // Post-order walk: a node is pushed once to expand its children and once more to combine their results
+        TreeNode[] stack = new TreeNode[64];
+        boolean[] expanded = new boolean[64];
+        Result[] results = new Result[64];
+        int top = 0;
+        int resultCount = 0;
+        stack[top] = root;
+        expanded[top++] = false;
+        while (top > 0) {
+            TreeNode node = stack[--top];
+            if (expanded[top]) {
+                Result right = node.right == null ? empty() : results[--resultCount];
+                Result left = node.left == null ? empty() : results[--resultCount];
+                if (resultCount == results.length) {
+                    results = Arrays.copyOf(results, 2 * results.length);
+                }
+                results[resultCount++] = combine(node.val, left, right);
+                continue;
+            }
+            if (top + 3 > stack.length) {
+                stack = Arrays.copyOf(stack, 2 * stack.length);
+                expanded = Arrays.copyOf(expanded, 2 * expanded.length);
+            }
+            stack[top] = node;
+            expanded[top++] = true;
+            // The right child is pushed first so that the left result ends up below the right one
+            if (node.right != null) {
+                stack[top] = node.right;
+                expanded[top++] = false;
+            }
+            if (node.left != null) {
+                stack[top] = node.left;
+                expanded[top++] = false;
+            }
+        }
+        return results[0];
+    }
+
+    // Result of a missing subtree, as in the null case of the recursive helper
+    private static Result empty() {
+        return new Result(0, Integer.MAX_VALUE, Integer.MIN_VALUE);
+    }
+
+    // Combines the results of both subtrees with the same rules as MagicalGroveFinder
+    static Result combine(int value, Result left, Result right) {
+        if (value > left.max && value < right.min) {
+            int sum = value + left.maxSum + right.maxSum;
+            return new Result(sum, Math.min(value, left.min), Math.max(value, right.max));
+        }
+        return new Result(Math.max(left.maxSum, right.maxSum), Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    // In-order values repeat every VALUE_PERIOD nodes, so no grove has more than VALUE_PERIOD - 1 nodes and every
+    // grove sum stays below VALUE_PERIOD^2, far from int overflow even for 10^7 nodes
+    private static final int VALUE_PERIOD = 4096;
+
+    // Builds a balanced tree of the given size with random values, mostly ordered so that groves exist
+    private static TreeNode buildBalancedTree(int lo, int hi, Random random) {
+        if (lo > hi) {
+            return null;
+        }
+        int mid = (lo + hi) >>> 1;
+        // Roughly one node in a thousand breaks the ordering, splitting the tree into many groves
+        int value = random.nextInt(1000) == 0 ? random.nextInt(VALUE_PERIOD) : mid % VALUE_PERIOD;
+        TreeNode node = new TreeNode(value);
+        node.left = buildBalancedTree(lo, mid - 1, random);
+        node.right = buildBalancedTree(mid + 1, hi, random);
+        return node;
+    }
+
+    // Scaling benchmark on a tree with 10^7 nodes (run with -Xmx2g or more)
+    public static void main(String[] args) {
+        int nodes = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        int rounds = 5;
+        System.out.println("Building a balanced tree with " + nodes + " nodes...");
+        TreeNode root = buildBalancedTree(0, nodes - 1, new Random(42));
+
+        // Sequential baseline
+        int expected = 0;
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < rounds; round++) {
+            long start = System.nanoTime();
+            expected = computeSequentially(root).maxSum;
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        double sequentialMillis = best / 1e6;
+        System.out.printf("sequential: %8.1f ms (sum = %d)%n", sequentialMillis, expected);
+
+        ParallelGroveFinder finder = new ParallelGroveFinder();
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int parallelism = 1; ; parallelism = Math.min(parallelism * 2, cores)) {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            best = Long.MAX_VALUE;
+            for (int round = 0; round < rounds; round++) {
+                long start = System.nanoTime();
+                int sum = finder.findLargestMagicalGrove(root, pool);
+                best = Math.min(best, System.nanoTime() - start);
+                if (sum != expected) {
+                    throw new IllegalStateException("Parallel result " + sum + " differs from " + expected);
+                }
+            }
+            pool.shutdown();
+            System.out.printf("%2d workers: %8.1f ms (speedup %.2fx)%n",
+                    parallelism, best / 1e6, sequentialMillis / (best / 1e6));
+            if (parallelism == cores) {
+                break;
+            }
+        }
+
+        // A root with one child over a long chain, which the recursive helper could not handle on a default stack
+        TreeNode lopsided = new TreeNode(0);
+        TreeNode tail = lopsided;
+        for (int i = 1; i < 1_000_000; i++) {
+            tail.right = new TreeNode(i % VALUE_PERIOD);
+            tail = tail.right;
+        }
+        tail.right = buildBalancedTree(0, 100_000, new Random(7));
+        int chainExpected = computeSequentially(lopsided).maxSum;
+        int chainSum = finder.findLargestMagicalGrove(lopsided);
+        System.out.printf("1,000,000-node chain over a balanced subtree: sum = %d (%s)%n",
+                chainSum, chainSum == chainExpected ? "same as sequential" : "DIFFERS from " + chainExpected);
+    }
+}
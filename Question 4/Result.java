@@ -0,0 +1,17 @@
+/**
+ * Result is the (maxSum, min, max) summary of a subtree that `MagicalGroveFinder` and `ParallelGroveFinder` pass
+ * up the tree and report to a `GroveTraversalObserver`.
+ */
+// Result class stores the result of each subtree traversal
+class Result {
+    int maxSum; // Maximum sum of coins in the subtree
+    int min;    // Minimum value in the subtree
+    int max;    // Maximum value in the subtree
+
+    // Constructor to initialize the result with maxSum, min, and max values
+    Result(int maxSum, int min, int max) {
+        this.maxSum = maxSum;
+        this.min = min;
+        this.max = max;
+    }
+}
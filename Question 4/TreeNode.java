@@ -0,0 +1,15 @@
+/**
+ * TreeNode is a node of the binary tree of magical coins searched by `MagicalGroveFinder`, `ParallelGroveFinder`
+ * and converted by `CompactGroveTree.fromTreeNode`.
+ */
+// TreeNode class represents a node in the binary tree
+class TreeNode {
+    int val;        // Value of the node (magical coin)
+    TreeNode left;  // Left child of the node
+    TreeNode right; // Right child of the node
+
+    // Constructor to initialize the node with a value
+    TreeNode(int x) {
+        val = x;
+    }
+}
@@ -0,0 +1,189 @@
+/**
+ * The ElevationGainIndex class answers many "longest hike with gain <= k inside samples [lo, hi]" queries on the same
+ * trail without rerunning `LongestHikeWithinElevationGainLimit.longestHike` for each one.
+ *
+ * Queries are fast only per limit: every distinct k needs its own O(n) `LimitTable`, after which each range query
+ * with that k costs O(log n). A query with a limit that has no table yet therefore costs O(n), no better than a
+ * fresh scan; the index pays off when many queries share few limits.
+ *
+ * How it works:
+ * 1. The index stores the prefix gains P of the trail, so the gain of any window [l, r] is P[r] - P[l].
+ * 2. For a limit k, `forLimit` builds a `LimitTable`: the two-pointer table L(r), the leftmost start of a valid hike
+ *    ending at r, plus a segment tree over the hike lengths r - L(r) + 1. L never decreases as r grows.
+ * 3. A range query [lo, hi] binary-searches the first end r* whose L(r*) >= lo. Hikes ending before r* are cut off
+ *    at lo, so the best of them is [lo, r* - 1]; hikes ending at r* or later are unaffected by lo, so the segment
+ *    tree gives the best of them. The longer of the two is the answer (ties keep the earliest start).
+ * 4. `answerAll` answers a batch offline: queries are sorted by k and each distinct k builds one table, reusing the
+ *    same arrays.
+ *
+ * Time Complexity:
+ * - Building the index: O(n), where n is the number of samples.
+ * - Building a table for one limit: O(n), paid once per distinct k.
+ * - Each query on an existing table: O(log n); O(n + log n) if its limit needs a new table.
+ * - A batch of q queries with d distinct limits: O(q log q + d n + q log n).
+ */
+import java.util.Arrays;
+import java.util.Random;
+
+public class ElevationGainIndex {
+
+    private final long[] prefix; // prefix[i] = total uphill gain from sample 0 to sample i
+
+    public ElevationGainIndex(int[] nums) {
+        prefix = new long[nums.length];
+        for (int i = 1; i < nums.length; i++) {
+            prefix[i] = prefix[i - 1] + Math.max(0, nums[i] - nums[i - 1]);
+        }
+    }
+
+    public int size() {
+        return prefix.length;
+    }
+
+    // Builds the table answering range queries for a single gain limit
+    public LimitTable forLimit(int k) {
+        LimitTable table = new LimitTable();
+        table.build(k);
+        return table;
+    }
+
+    // Answers a batch of (k, lo, hi) queries offline, grouping them by limit
+    public StreamingHikeScanner.HikeResult[] answerAll(int[] ks, int[] los, int[] his) {
+        int q = ks.length;
+        if (los.length != q || his.length != q) {
+            throw new IllegalArgumentException("Query arrays must have the same length");
+        }
+
+        // Sort query indices by limit so every distinct k builds its table once
+        Integer[] order = new Integer[q];
+        for (int i = 0; i < q; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(ks[a], ks[b]));
+
+        StreamingHikeScanner.HikeResult[] results = new StreamingHikeScanner.HikeResult[q];
+        LimitTable table = new LimitTable();
+        for (int i = 0; i < q; i++) {
+            int query = order[i];
+            if (i == 0 || ks[query] != table.k) {
+                table.build(ks[query]);
+            }
+            results[query] = table.query(los[query], his[query]);
+        }
+        return results;
+    }
+
+    // Two-pointer table and segment tree for one gain limit
+    public final class LimitTable {
+        private int k;                                 // Limit this table was built for
+        private final int[] leftmost = new int[prefix.length]; // Leftmost valid start of a hike ending at each sample
+        private final int[] tree = new int[2 * prefix.length]; // Segment tree of the end index with the longest hike
+
+        private LimitTable() {
+        }
+
+        // Fills the table for limit k, reusing the arrays
+        private void build(int k) {
+            this.k = k;
+            int n = prefix.length;
+            int left = 0;
+            for (int right = 0; right < n; right++) {
+                while (left < right && prefix[right] - prefix[left] > k) {
+                    left++;
+                }
+                leftmost[right] = left;
+                tree[n + right] = right;
+            }
+            for (int i = n - 1; i > 0; i--) {
+                tree[i] = better(tree[2 * i], tree[2 * i + 1]);
+            }
+        }
+
+        public int limit() {
+            return k;
+        }
+
+        // Longest hike with gain <= k using only samples lo..hi (inclusive)
+        public StreamingHikeScanner.HikeResult query(int lo, int hi) {
+            if (lo < 0 || hi >= prefix.length || lo > hi) {
+                throw new IllegalArgumentException("Invalid range [" + lo + ", " + hi + "] for " + prefix.length + " samples");
+            }
+
+            // First end whose leftmost start is not cut off by lo (leftmost never decreases)
+            int low = lo;
+            int high = hi + 1;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (leftmost[mid] >= lo) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+            int firstFree = low;
+
+            // Hikes ending before firstFree can start at lo itself; the longest ends just before firstFree
+            int bestStart = lo;
+            int bestLength = firstFree - lo;
+            if (firstFree <= hi) {
+                int end = rangeBest(firstFree, hi);
+                int length = end - leftmost[end] + 1;
+                if (length > bestLength) {
+                    bestStart = leftmost[end];
+                    bestLength = length;
+                }
+            }
+            return new StreamingHikeScanner.HikeResult(bestLength, bestStart, bestStart + bestLength - 1);
+        }
+
+        // End index in [from, to] with the longest hike (earliest on ties)
+        private int rangeBest(int from, int to) {
+            int n = prefix.length;
+            int best = from;
+            for (int l = from + n, r = to + n + 1; l < r; l >>= 1, r >>= 1) {
+                if ((l & 1) == 1) best = better(best, tree[l++]);
+                if ((r & 1) == 1) best = better(best, tree[--r]);
+            }
+            return best;
+        }
+
+        // Picks the end index with the longer hike; equal lengths keep the earlier hike
+        private int better(int a, int b) {
+            int lengthA = a - leftmost[a] + 1;
+            int lengthB = b - leftmost[b] + 1;
+            if (lengthA != lengthB) {
+                return lengthA > lengthB ? a : b;
+            }
+            return Math.min(a, b);
+        }
+    }
+
+    // Main method answering a batch of queries on a random trail
+    public static void main(String[] args) {
+        int[] trail1 = {4, 2, 1, 4, 3, 4, 5, 8, 15};
+        ElevationGainIndex index = new ElevationGainIndex(trail1);
+        System.out.println(index.forLimit(3).query(0, trail1.length - 1)); // Expected: 5 samples, from 0 to 4
+
+        Random random = new Random(11);
+        int samples = 1_000_000;
+        int queries = 100_000;
+        int[] trail = new int[samples];
+        for (int i = 1; i < samples; i++) {
+            trail[i] = trail[i - 1] + random.nextInt(11) - 5;
+        }
+        int[] ks = new int[queries];
+        int[] los = new int[queries];
+        int[] his = new int[queries];
+        for (int i = 0; i < queries; i++) {
+            ks[i] = 100 * (1 + random.nextInt(20)); // 20 distinct limits
+            los[i] = random.nextInt(samples);
+            his[i] = los[i] + random.nextInt(samples - los[i]);
+        }
+
+        long start = System.nanoTime();
+        StreamingHikeScanner.HikeResult[] results = new ElevationGainIndex(trail).answerAll(ks, los, his);
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("Answered %d queries on %d samples in %.1f ms%n", queries, samples, elapsed / 1e6);
+        System.out.println("First query (k = " + ks[0] + ", [" + los[0] + ", " + his[0] + "]): " + results[0]);
+    }
+}
@@ -0,0 +1,279 @@
+/**
+ * The ParallelHikeFinder class computes the longest hike whose elevation gain does not exceed k, the same answer
+ * as `LongestHikeWithinElevationGainLimit.longestHike`, by splitting the trail into chunks that run on a ForkJoinPool.
+ *
+ * Chunk summaries:
+ * Each chunk [start, end] is described by a `HikeSummary` holding
+ * - the best hike fully inside the chunk,
+ * - the chunk's first and last elevation and its total gain,
+ * - a prefix profile: for every gain value g <= k reached by hikes starting at the chunk's first sample, the longest such
+ *   hike with gain g (only the points where the gain changes are stored),
+ * - a suffix profile: the same for hikes ending at the chunk's last sample.
+ *
+ * Merging two neighbouring chunks A and B:
+ * 1. The step between A's last and B's first sample adds a gain of max(0, B.first - A.last).
+ * 2. A hike crossing the boundary is a suffix of A plus a prefix of B; walking A's suffix profile upwards while
+ *    walking B's prefix profile downwards finds the longest one within k in one pass.
+ * 3. The merged best is the longest of A's best, B's best and the crossing hike (ties keep the earliest start).
+ * 4. The merged prefix profile is A's, extended by B's (shifted by A's total gain) when the whole of A fits within k;
+ *    the merged suffix profile is built the same way from the other side.
+ * Because profiles are exact, the merged answer is exactly the global answer.
+ *
+ * Time Complexity:
+ * O(n) work for the chunks plus O(p) per merge, where p is the profile size (at most min(chunk length, k + 1) entries),
+ * so O(n / w + p log n) time on w workers for typical limits.
+ */
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+public class ParallelHikeFinder {
+
+    // Smallest chunk worth handing to a separate task
+    private static final int MIN_CHUNK = 1 << 16;
+
+    private final ForkJoinPool pool;
+
+    public ParallelHikeFinder() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public ParallelHikeFinder(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    // Finds the longest hike within the elevation gain limit k, with its first and last sample index
+    public StreamingHikeScanner.HikeResult longestHike(int[] nums, int k) {
+        if (nums.length == 0) {
+            return new StreamingHikeScanner.HikeResult(0, -1, -1);
+        }
+        // Aim for several chunks per worker so uneven chunks still balance out
+        int chunk = Math.max(MIN_CHUNK, nums.length / (pool.getParallelism() * 8));
+        HikeSummary summary = pool.invoke(new HikeTask(nums, 0, nums.length, k, chunk));
+        return new StreamingHikeScanner.HikeResult(summary.bestLength, summary.bestStart,
+                summary.bestStart + summary.bestLength - 1);
+    }
+
+    // Task summarizing the samples [from, to) of the trail
+    private static class HikeTask extends RecursiveTask<HikeSummary> {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] nums;
+        private final int from;
+        private final int to;
+        private final int k;
+        private final int chunk;
+
+        HikeTask(int[] nums, int from, int to, int k, int chunk) {
+            this.nums = nums;
+            this.from = from;
+            this.to = to;
+            this.k = k;
+            this.chunk = chunk;
+        }
+
+        @Override
+        protected HikeSummary compute() {
+            if (to - from <= chunk) {
+                return HikeSummary.of(nums, from, to, k);
+            }
+            int mid = (from + to) >>> 1;
+            HikeTask rightTask = new HikeTask(nums, mid, to, k, chunk);
+            rightTask.fork();
+            HikeSummary left = new HikeTask(nums, from, mid, k, chunk).compute();
+            HikeSummary right = rightTask.join();
+            return HikeSummary.merge(left, right, k);
+        }
+    }
+
+    // Summary of a chunk, sufficient to join it with its neighbours
+    static final class HikeSummary {
+        int start;        // Index of the chunk's first sample
+        int length;       // Number of samples in the chunk
+        int first;        // Elevation of the first sample
+        int last;         // Elevation of the last sample
+        long totalGain;   // Gain over the whole chunk
+
+        int bestStart;    // First sample of the best hike inside the chunk
+        int bestLength;   // Length of that hike
+
+        long[] prefixGains = new long[4]; // Distinct gains of hikes starting at the first sample, ascending
+        int[] prefixLengths = new int[4]; // Longest such hike for each gain
+        int prefixSize;
+        long[] suffixGains = new long[4]; // Distinct gains of hikes ending at the last sample, ascending
+        int[] suffixLengths = new int[4]; // Longest such hike for each gain
+        int suffixSize;
+
+        // Summarizes the samples [from, to) directly
+        static HikeSummary of(int[] nums, int from, int to, int k) {
+            HikeSummary s = new HikeSummary();
+            s.start = from;
+            s.length = to - from;
+            s.first = nums[from];
+            s.last = nums[to - 1];
+
+            // Best hike inside the chunk: sliding window over the prefix gains
+            long[] prefix = new long[s.length];
+            for (int i = 1; i < s.length; i++) {
+                prefix[i] = prefix[i - 1] + Math.max(0, nums[from + i] - nums[from + i - 1]);
+            }
+            s.totalGain = prefix[s.length - 1];
+            int left = 0;
+            for (int right = 0; right < s.length; right++) {
+                while (left < right && prefix[right] - prefix[left] > k) {
+                    left++;
+                }
+                if (right - left + 1 > s.bestLength) {
+                    s.bestLength = right - left + 1;
+                    s.bestStart = from + left;
+                }
+            }
+
+            // Prefix profile: hikes starting at the first sample
+            for (int len = 1; len <= s.length && prefix[len - 1] <= k; len++) {
+                s.addPrefix(prefix[len - 1], len);
+            }
+            // Suffix profile: hikes ending at the last sample
+            for (int len = 1; len <= s.length && s.totalGain - prefix[s.length - len] <= k; len++) {
+                s.addSuffix(s.totalGain - prefix[s.length - len], len);
+            }
+            return s;
+        }
+
+        // Joins two neighbouring chunks (a directly followed by b)
+        static HikeSummary merge(HikeSummary a, HikeSummary b, int k) {
+            HikeSummary s = new HikeSummary();
+            long bridge = Math.max(0, b.first - a.last); // Gain of the step between the two chunks
+            s.start = a.start;
+            s.length = a.length + b.length;
+            s.first = a.first;
+            s.last = b.last;
+            s.totalGain = a.totalGain + bridge + b.totalGain;
+
+            // Best of the two inner hikes, earliest first on ties
+            s.bestStart = a.bestStart;
+            s.bestLength = a.bestLength;
+            s.offer(b.bestStart, b.bestLength);
+
+            // Longest hike crossing the boundary: longer suffixes of a leave less budget for prefixes of b
+            int j = b.prefixSize - 1;
+            for (int i = 0; i < a.suffixSize; i++) {
+                long budget = k - bridge - a.suffixGains[i];
+                while (j >= 0 && b.prefixGains[j] > budget) {
+                    j--;
+                }
+                if (j < 0) {
+                    break;
+                }
+                int suffixLength = a.suffixLengths[i];
+                s.offer(a.start + a.length - suffixLength, suffixLength + b.prefixLengths[j]);
+            }
+
+            // Prefix profile: a's, continued into b when all of a fits within the limit
+            for (int i = 0; i < a.prefixSize; i++) {
+                s.addPrefix(a.prefixGains[i], a.prefixLengths[i]);
+            }
+            if (a.totalGain <= k) {
+                long offset = a.totalGain + bridge;
+                for (int i = 0; i < b.prefixSize && offset + b.prefixGains[i] <= k; i++) {
+                    s.addPrefix(offset + b.prefixGains[i], a.length + b.prefixLengths[i]);
+                }
+            }
+
+            // Suffix profile: b's, continued into a when all of b fits within the limit
+            for (int i = 0; i < b.suffixSize; i++) {
+                s.addSuffix(b.suffixGains[i], b.suffixLengths[i]);
+            }
+            if (b.totalGain <= k) {
+                long offset = b.totalGain + bridge;
+                for (int i = 0; i < a.suffixSize && offset + a.suffixGains[i] <= k; i++) {
+                    s.addSuffix(offset + a.suffixGains[i], b.length + a.suffixLengths[i]);
+                }
+            }
+            return s;
+        }
+
+        // Keeps the given hike if it is longer than the current best, or as long but earlier
+        private void offer(int start, int length) {
+            if (length > bestLength || (length == bestLength && start < bestStart)) {
+                bestStart = start;
+                bestLength = length;
+            }
+        }
+
+        // Records a prefix hike; equal gains keep only the longest hike
+        private void addPrefix(long gain, int length) {
+            if (prefixSize > 0 && prefixGains[prefixSize - 1] == gain) {
+                prefixLengths[prefixSize - 1] = length;
+                return;
+            }
+            if (prefixSize == prefixGains.length) {
+                prefixGains = Arrays.copyOf(prefixGains, prefixSize * 2);
+                prefixLengths = Arrays.copyOf(prefixLengths, prefixSize * 2);
+            }
+            prefixGains[prefixSize] = gain;
+            prefixLengths[prefixSize++] = length;
+        }
+
+        // Records a suffix hike; equal gains keep only the longest hike
+        private void addSuffix(long gain, int length) {
+            if (suffixSize > 0 && suffixGains[suffixSize - 1] == gain) {
+                suffixLengths[suffixSize - 1] = length;
+                return;
+            }
+            if (suffixSize == suffixGains.length) {
+                suffixGains = Arrays.copyOf(suffixGains, suffixSize * 2);
+                suffixLengths = Arrays.copyOf(suffixLengths, suffixSize * 2);
+            }
+            suffixGains[suffixSize] = gain;
+            suffixLengths[suffixSize++] = length;
+        }
+    }
+
+    // Scaling benchmark on a long random-walk trail, from one worker up to all cores
+    public static void main(String[] args) {
+        int samples = args.length > 0 ? Integer.parseInt(args[0]) : 50_000_000;
+        int k = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+        int rounds = 5;
+
+        Random random = new Random(7);
+        int[] trail = new int[samples];
+        for (int i = 1; i < samples; i++) {
+            trail[i] = trail[i - 1] + random.nextInt(11) - 5;
+        }
+
+        // Sequential baseline with the streaming scanner
+        StreamingHikeScanner.HikeResult expected = null;
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < rounds; round++) {
+            long start = System.nanoTime();
+            expected = StreamingHikeScanner.scan(IntBuffer.wrap(trail), k);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        double sequentialMillis = best / 1e6;
+        System.out.printf("sequential: %8.1f ms (%s)%n", sequentialMillis, expected);
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int workers = 1; ; workers = Math.min(workers * 2, cores)) {
+            ForkJoinPool pool = new ForkJoinPool(workers);
+            ParallelHikeFinder finder = new ParallelHikeFinder(pool);
+            best = Long.MAX_VALUE;
+            for (int round = 0; round < rounds; round++) {
+                long start = System.nanoTime();
+                StreamingHikeScanner.HikeResult result = finder.longestHike(trail, k);
+                best = Math.min(best, System.nanoTime() - start);
+                if (result.length != expected.length || result.start != expected.start) {
+                    throw new IllegalStateException("Parallel result " + result + " differs from " + expected);
+                }
+            }
+            pool.shutdown();
+            System.out.printf("%2d workers: %8.1f ms (speedup %.2fx)%n",
+                    workers, best / 1e6, sequentialMillis / (best / 1e6));
+            if (workers == cores) {
+                break;
+            }
+        }
+    }
+}
@@ -0,0 +1,188 @@
+/**
+ * The StreamingHikeScanner class finds the longest hike whose total elevation gain does not exceed a limit k,
+ * like `LongestHikeWithinElevationGainLimit.longestHike`, but reads the elevation samples one at a time so a trail
+ * never has to be loaded into memory.
+ *
+ * How it works:
+ * 1. The scanner keeps a running prefix gain P, the sum of all uphill steps seen so far (as a long, so 10^9 samples
+ *    cannot overflow it).
+ * 2. The gain of the window [left, right] is P[right] - P[left]. P only changes at uphill steps, so only those are
+ *    kept: a ring buffer holds the sample index and prefix gain after every uphill step inside the current window.
+ *    Flat and downhill samples add nothing to it.
+ * 3. After every sample the window is shrunk until its gain is within k by dropping the oldest uphill step and
+ *    moving left to the sample it ends at, the first one after which the window's gain falls. The longest window
+ *    (with its first and last sample index) is remembered. Ties keep the earliest hike.
+ *
+ * Input sources:
+ * - `accept` for pushing samples one by one.
+ * - `scan(IntStream, k)` and `scan(IntBuffer, k)` for primitive streams and buffers.
+ * - `scanFile(Path, k)` for a file of big-endian 32-bit samples, memory-mapped one region at a time.
+ *
+ * Time Complexity:
+ * O(n) for n samples, since every uphill step enters and leaves the ring once. Every step gains at least 1, so a
+ * valid window holds at most k of them: memory is O(min(k, uphill steps in the window)), independent of the trail's
+ * length, and a flat or downhill trail of 10^9 samples keeps the ring empty.
+ */
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.IntStream;
+
+public class StreamingHikeScanner {
+
+    // Bytes mapped at once when scanning a file (a multiple of the sample size)
+    private static final long MAP_REGION_BYTES = 1L << 28;
+
+    // Largest ring; past it the two arrays would take 16 GB and doubling would overflow an int
+    private static final int MAX_RING = 1 << 30;
+
+    private final int k;            // Maximum allowed elevation gain
+    private long[] stepIndex = new long[16]; // Sample index each uphill step in the window ends at
+    private long[] stepGain = new long[16];  // Prefix gain after each of those steps
+    private int head;               // Ring position of the window's oldest uphill step
+    private int count;              // Number of uphill steps in the window
+
+    private long samples;           // Number of samples seen so far
+    private int previous;           // Previous elevation sample
+    private long prefixGain;        // Total uphill gain up to the latest sample
+    private long left;              // Index of the window's first sample
+    private long leftGain;          // Prefix gain at the window's first sample
+
+    private long bestLength;        // Length of the longest valid hike found so far
+    private long bestStart = -1;    // Index of its first sample
+
+    public StreamingHikeScanner(int k) {
+        this.k = k;
+    }
+
+    // Adds the next elevation sample of the trail
+    public void accept(int elevation) {
+        long right = samples++;
+        // Only uphill steps count towards the gain
+        if (right > 0 && elevation > previous) {
+            prefixGain += (long) elevation - previous;
+            push(right, prefixGain);
+        }
+        previous = elevation;
+
+        // Shrink the window until its gain is within the limit
+        while (prefixGain - leftGain > k) {
+            if (count == 0) {
+                // Only a negative limit gets here; a single sample always stays
+                left = right;
+                leftGain = prefixGain;
+                break;
+            }
+            left = stepIndex[head];
+            leftGain = stepGain[head];
+            head = (head + 1) & (stepIndex.length - 1);
+            count--;
+        }
+
+        long length = right - left + 1;
+        if (length > bestLength) {
+            bestLength = length;
+            bestStart = left;
+        }
+    }
+
+    // Returns the longest valid hike seen so far
+    public HikeResult result() {
+        return new HikeResult(bestLength, bestStart, bestStart < 0 ? -1 : bestStart + bestLength - 1);
+    }
+
+    // Appends an uphill step to the ring, doubling it when full
+    private void push(long index, long gain) {
+        int capacity = stepIndex.length;
+        if (count == capacity) {
+            if (capacity == MAX_RING) {
+                throw new IllegalStateException("More than " + MAX_RING + " uphill steps within a gain of " + k);
+            }
+            long[] grownIndex = new long[capacity * 2];
+            long[] grownGain = new long[capacity * 2];
+            for (int i = 0; i < count; i++) {
+                grownIndex[i] = stepIndex[(head + i) & (capacity - 1)];
+                grownGain[i] = stepGain[(head + i) & (capacity - 1)];
+            }
+            stepIndex = grownIndex;
+            stepGain = grownGain;
+            head = 0;
+            capacity *= 2;
+        }
+        int tail = (head + count) & (capacity - 1);
+        stepIndex[tail] = index;
+        stepGain[tail] = gain;
+        count++;
+    }
+
+    // Scans a primitive stream of elevation samples
+    public static HikeResult scan(IntStream elevations, int k) {
+        StreamingHikeScanner scanner = new StreamingHikeScanner(k);
+        elevations.sequential().forEachOrdered(scanner::accept);
+        return scanner.result();
+    }
+
+    // Scans the remaining samples of an int buffer
+    public static HikeResult scan(IntBuffer elevations, int k) {
+        StreamingHikeScanner scanner = new StreamingHikeScanner(k);
+        scanner.acceptAll(elevations);
+        return scanner.result();
+    }
+
+    // Scans a file of big-endian 32-bit elevation samples, mapping it one region at a time
+    public static HikeResult scanFile(Path path, int k) throws IOException {
+        StreamingHikeScanner scanner = new StreamingHikeScanner(k);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long usable = channel.size() - channel.size() % Integer.BYTES; // Ignore a trailing partial sample
+            for (long position = 0; position < usable; position += MAP_REGION_BYTES) {
+                long length = Math.min(MAP_REGION_BYTES, usable - position);
+                MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                scanner.acceptAll(region.order(ByteOrder.BIG_ENDIAN).asIntBuffer());
+            }
+        }
+        return scanner.result();
+    }
+
+    private void acceptAll(IntBuffer elevations) {
+        while (elevations.hasRemaining()) {
+            accept(elevations.get());
+        }
+    }
+
+    // Result of a scan: the hike's length in samples and the indices of its first and last sample
+    public static final class HikeResult {
+        public final long length;
+        public final long start;
+        public final long end;
+
+        HikeResult(long length, long start, long end) {
+            this.length = length;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public String toString() {
+            return "Longest hike: " + length + " samples, from " + start + " to " + end;
+        }
+    }
+
+    // Main method demonstrating the stream and file inputs
+    public static void main(String[] args) throws IOException {
+        int[] trail1 = {4, 2, 1, 4, 3, 4, 5, 8, 15};
+        int k1 = 3;
+        System.out.println(scan(IntStream.of(trail1), k1)); // Expected: 5 samples, from 0 to 4
+
+        // Same trail through a memory-mapped file
+        Path file = java.nio.file.Files.createTempFile("trail", ".bin");
+        java.nio.ByteBuffer bytes = java.nio.ByteBuffer.allocate(trail1.length * Integer.BYTES);
+        bytes.asIntBuffer().put(trail1);
+        java.nio.file.Files.write(file, bytes.array());
+        System.out.println(scanFile(file, k1)); // Expected: 5 samples, from 0 to 4
+        java.nio.file.Files.delete(file);
+    }
+}
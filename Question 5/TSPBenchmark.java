@@ -0,0 +1,101 @@
+/**
+ * The TSPBenchmark class compares the TSP strategies on random uniform instances in the style of TSPLIB's
+ * random Euclidean sets and reports how far each tour is from the best known one after each time budget.
+ *
+ * For every instance size:
+ * 1. Cities are drawn uniformly from a square with a fixed seed, so every run sees the same instances.
+ * 2. The candidate local search (`TSPhillClimbing.solveLocalSearch`'s algorithm) gives the baseline with no budget.
+ * 3. Each metaheuristic runs from the same nearest-neighbour start for every budget.
+ * 4. The gap of a tour is its cost relative to the best tour found for that instance by any strategy, and also
+ *    relative to the Beardwood-Halton-Hammersley estimate 0.7124 * sqrt(n * area) of the optimal tour length.
+ *
+ * Usage: java TSPBenchmark [size ...] (defaults to 1000 and 5000 cities, budgets of 1, 2 and 5 seconds).
+ */
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class TSPBenchmark {
+
+    private static final int SIDE = 10_000;               // Cities are placed in a SIDE x SIDE square
+    private static final long[] BUDGETS_MILLIS = {1000, 2000, 5000};
+
+    public static void main(String[] args) {
+        int[] sizes = args.length == 0 ? new int[]{1000, 5000} : new int[args.length];
+        for (int i = 0; i < args.length; i++) {
+            sizes[i] = Integer.parseInt(args[i]);
+        }
+
+        for (int n : sizes) {
+            List<TSPHillClimbing.City> cities = randomInstance(n, n);
+            TSPDistanceProvider distances = TSPDistanceProvider.forCities(cities);
+            TSPNeighborLists candidates = TSPNeighborLists.build(cities, 10);
+            double estimate = 0.7124 * Math.sqrt((double) n * SIDE * SIDE);
+
+            List<String> names = new ArrayList<>();
+            List<double[]> costs = new ArrayList<>();
+
+            // Baseline: one local search from the same start, no budget
+            TSPLocalSearch localSearch = new TSPLocalSearch(cities, distances, candidates);
+            int[] start = localSearch.nearestNeighborTour(0);
+            int[] tour = start.clone();
+            long begin = System.nanoTime();
+            double baseline = localSearch.optimize(tour);
+            long baselineMillis = (System.nanoTime() - begin) / 1_000_000;
+            double best = baseline;
+
+            for (long budget : BUDGETS_MILLIS) {
+                TSPMetaheuristic[] strategies = {
+                        new TSPMetaheuristic.SimulatedAnnealing(cities, distances, candidates, 1, 0, 0, n),
+                        new TSPMetaheuristic.TabuSearch(cities, distances, candidates, 1, 64, 10),
+                        new TSPMetaheuristic.GuidedLocalSearch(cities, distances, candidates, 1, 0.3),
+                };
+                for (int s = 0; s < strategies.length; s++) {
+                    tour = start.clone();
+                    double cost = strategies[s].run(tour, budget);
+                    best = Math.min(best, cost);
+                    if (names.size() <= s) {
+                        names.add(strategies[s].name());
+                        costs.add(new double[BUDGETS_MILLIS.length]);
+                    }
+                    costs.get(s)[indexOf(budget)] = cost;
+                }
+            }
+
+            System.out.printf("%n%d cities (best found %.0f, BHH estimate %.0f)%n", n, best, estimate);
+            System.out.printf("%-22s %10s %14s %14s%n", "strategy", "budget", "gap vs best", "gap vs BHH");
+            System.out.printf("%-22s %8d ms %13.2f%% %13.2f%%%n", "Local search", baselineMillis,
+                    gap(baseline, best), gap(baseline, estimate));
+            for (int s = 0; s < names.size(); s++) {
+                for (int b = 0; b < BUDGETS_MILLIS.length; b++) {
+                    double cost = costs.get(s)[b];
+                    System.out.printf("%-22s %8d ms %13.2f%% %13.2f%%%n", names.get(s), BUDGETS_MILLIS[b],
+                            gap(cost, best), gap(cost, estimate));
+                }
+            }
+        }
+    }
+
+    private static int indexOf(long budget) {
+        for (int i = 0; i < BUDGETS_MILLIS.length; i++) {
+            if (BUDGETS_MILLIS[i] == budget) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unknown budget " + budget);
+    }
+
+    private static double gap(double cost, double reference) {
+        return 100.0 * (cost - reference) / reference;
+    }
+
+    // Uniform random cities in the square, reproducible for a given seed
+    private static List<TSPHillClimbing.City> randomInstance(int n, long seed) {
+        Random random = new Random(seed);
+        List<TSPHillClimbing.City> cities = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            cities.add(new TSPHillClimbing.City(random.nextInt(SIDE), random.nextInt(SIDE)));
+        }
+        return cities;
+    }
+}
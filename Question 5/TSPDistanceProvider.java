@@ -0,0 +1,150 @@
+/**
+ * The TSPDistanceProvider class supplies the distance between two cities by index, so the TSP solvers do not have to
+ * call `City.distanceTo` (and `Math.sqrt`) for the same pair again and again.
+ *
+ * Modes:
+ * 1. `Dense`: a full `float[]` matrix, filled once. Each lookup is a single array read. It uses 4 * n^2 bytes,
+ *    so it is meant for small instances (up to `DENSE_LIMIT` cities).
+ * 2. `Cached`: computes distances on demand and keeps them in a bounded direct-mapped cache. Each slot holds one
+ *    city pair, and a colliding pair simply replaces it, so memory stays fixed however large n is.
+ * 3. Candidate neighbour lists for restricting moves are built separately by `TSPNeighborLists`.
+ *
+ * `forCities` picks the dense matrix when it fits and the cached mode otherwise. Solvers running on several threads
+ * call `forThread` for each worker: the dense matrix is shared, while every worker gets its own cache.
+ *
+ * Time Complexity:
+ * - Dense: O(n^2) to build, O(1) per lookup.
+ * - Cached: O(1) per lookup (one sqrt on a cache miss).
+ */
+import java.util.Arrays;
+import java.util.List;
+
+public abstract class TSPDistanceProvider {
+
+    // Largest instance that gets a dense matrix (4 * 4000^2 bytes = 64 MB)
+    public static final int DENSE_LIMIT = 4000;
+    // Number of slots in the on-demand cache
+    public static final int DEFAULT_CACHE_SLOTS = 1 << 20;
+
+    final int[] xs; // x coordinate of every city
+    final int[] ys; // y coordinate of every city
+
+    TSPDistanceProvider(List<TSPHillClimbing.City> cities) {
+        int n = cities.size();
+        xs = new int[n];
+        ys = new int[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = cities.get(i).x;
+            ys[i] = cities.get(i).y;
+        }
+    }
+
+    // Picks the dense matrix for small instances and the bounded cache for large ones
+    public static TSPDistanceProvider forCities(List<TSPHillClimbing.City> cities) {
+        if (cities.size() <= DENSE_LIMIT) {
+            return new Dense(cities);
+        }
+        return new Cached(cities, DEFAULT_CACHE_SLOTS);
+    }
+
+    // Distance between cities a and b
+    public abstract double distance(int a, int b);
+
+    // Provider safe to use from one more thread (the dense matrix is read-only and can be shared)
+    public abstract TSPDistanceProvider forThread();
+
+    public int size() {
+        return xs.length;
+    }
+
+    // Euclidean distance computed from the coordinates
+    final double compute(int a, int b) {
+        double dx = xs[a] - xs[b];
+        double dy = ys[a] - ys[b];
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    // Full matrix of distances, for small instances
+    public static final class Dense extends TSPDistanceProvider {
+        private final float[] matrix; // matrix[a * n + b] = distance between a and b
+        private final int n;
+
+        public Dense(List<TSPHillClimbing.City> cities) {
+            super(cities);
+            n = cities.size();
+            matrix = new float[n * n];
+            for (int a = 0; a < n; a++) {
+                for (int b = a + 1; b < n; b++) {
+                    float d = (float) compute(a, b);
+                    matrix[a * n + b] = d;
+                    matrix[b * n + a] = d;
+                }
+            }
+        }
+
+        @Override
+        public double distance(int a, int b) {
+            return matrix[a * n + b];
+        }
+
+        @Override
+        public TSPDistanceProvider forThread() {
+            return this;
+        }
+    }
+
+    // Distances computed on demand, remembered in a fixed-size direct-mapped cache
+    public static final class Cached extends TSPDistanceProvider {
+        private final List<TSPHillClimbing.City> cities; // Kept to create per-thread copies
+        private final long[] keys;    // Pair stored in each slot, or -1 when empty
+        private final float[] values; // Distance of that pair
+        private final int mask;
+        private long hits;
+        private long misses;
+
+        public Cached(List<TSPHillClimbing.City> cities, int slots) {
+            super(cities);
+            this.cities = cities;
+            int size = Integer.highestOneBit(Math.max(16, slots));
+            keys = new long[size];
+            values = new float[size];
+            Arrays.fill(keys, -1L);
+            mask = size - 1;
+        }
+
+        @Override
+        public double distance(int a, int b) {
+            if (a > b) {
+                int tmp = a;
+                a = b;
+                b = tmp;
+            }
+            long key = ((long) a << 32) | b;
+            // Fibonacci hashing spreads neighbouring pairs over the whole table
+            int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+            if (keys[slot] == key) {
+                hits++;
+                return values[slot];
+            }
+            misses++;
+            float d = (float) compute(a, b);
+            keys[slot] = key;
+            values[slot] = d;
+            return d;
+        }
+
+        @Override
+        public TSPDistanceProvider forThread() {
+            // The cache is written on every miss, so each thread gets its own
+            return new Cached(cities, keys.length);
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+    }
+}
@@ -16,6 +16,10 @@
  *    - Implements the hill climbing algorithm to find an approximate solution to the TSP.
  *    - The `solve` method starts with a random tour and iteratively improves it by swapping pairs of cities to minimize the tour cost.
  *    - The `swap` method generates a new tour by swapping two cities.
+ *    - The `solveLocalSearch` method improves a nearest-neighbour tour with the 2-opt and Or-opt moves of `TSPLocalSearch`,
+ *      which evaluates each move by its cost delta instead of rebuilding and recosting the whole tour.
+ *      Moves are restricted to the nearest-neighbour candidates of `TSPNeighborLists`, and distances come from a
+ *      `TSPDistanceProvider` (a dense matrix for small instances, a bounded cache for large ones).
  * 
  * Time Complexity:
  * The time complexity of the hill climbing algorithm in this implementation is O(n^2 * n), where n is the number of cities. 
@@ -81,6 +85,9 @@ public class TSPHillClimbing {
     // Class implementing the hill climbing algorithm for solving TSP
     static class TSPhillClimbing {
 
+        // Number of nearest neighbours each city may be connected to by the local search
+        private static final int CANDIDATE_NEIGHBORS = 10;
+
         // Method to solve the TSP problem using hill climbing
         public TSPSolution solve(List<City> cities) {
             // Start with a random initial solution
@@ -113,6 +120,23 @@ public class TSPHillClimbing {
             return best;
         }
 
+        // Method to solve the TSP problem with 2-opt and Or-opt moves evaluated by cost deltas (see TSPLocalSearch)
+        public TSPSolution solveLocalSearch(List<City> cities) {
+            // Moves are restricted to each city's nearest neighbours, with distances looked up instead of recomputed
+            TSPLocalSearch search = new TSPLocalSearch(cities, TSPDistanceProvider.forCities(cities),
+                    TSPNeighborLists.build(cities, CANDIDATE_NEIGHBORS));
+            // Start from a nearest-neighbour tour beginning at a random city, which needs far fewer passes than a shuffle
+            int[] tour = search.nearestNeighborTour(new Random().nextInt(cities.size()));
+
+            // Improve the tour in place, then build the solution (which recalculates the cost from scratch)
+            search.optimize(tour);
+            List<City> route = new ArrayList<>();
+            for (int city : tour) {
+                route.add(cities.get(city));
+            }
+            return new TSPSolution(route);
+        }
+
         // Method to create a new solution by swapping two cities in the tour
         private List<City> swap(List<City> solution, int i, int j) {
             List<City> newSolution = new ArrayList<>(solution);
@@ -140,5 +164,9 @@ public class TSPHillClimbing {
         // Print the best solution found
         System.out.println("Best Solution found:");
         System.out.println(solution);
+
+        // Solve the same cities with the 2-opt / Or-opt local search
+        System.out.println("Local search solution:");
+        System.out.println(solver.solveLocalSearch(cities));
     }
 }
@@ -0,0 +1,524 @@
+/**
+ * The TSPLocalSearch class improves a TSP tour in place with 2-opt and Or-opt moves, as a faster alternative to
+ * the city-swapping loop of `TSPHillClimbing.TSPhillClimbing.solve`.
+ *
+ * How it works:
+ * 1. The tour is an `int[]` of city indices, so no lists or `TSPSolution` objects are created while searching.
+ * 2. Every move is evaluated by its cost delta, computed from the handful of edges it removes and adds (O(1)),
+ *    instead of recomputing the whole tour cost.
+ * 3. A 2-opt move removes the edges (a, b) and (c, d) and reconnects them as (a, c) and (b, d), which means reversing
+ *    the path between b and c. The shorter of the two equivalent reversals is applied in place.
+ * 4. An Or-opt move takes a segment of 1 to 3 consecutive cities and reinserts it, possibly reversed, between two
+ *    other neighbouring cities. It is applied in place with array reversals.
+ * 5. 2-opt passes run until they stop improving, then an Or-opt pass runs, and this repeats until neither finds an
+ *    improving move, so the result is a local optimum for both neighbourhoods.
+ * 6. Both passes reject most candidate moves with squared-distance bounds before taking any square root.
+ *
+ * Candidate mode:
+ * When built with `TSPNeighborLists`, the search only tries moves that connect a city to one of its k nearest
+ * neighbours. A position array gives each city's place in the tour, so a 2-opt move starts from a city a and a
+ * candidate c, and an Or-opt move reinserts the segment next to a candidate of one of its ends (done as three 2-opt
+ * steps). Distances come from a `TSPDistanceProvider`, so repeated pairs are not recomputed.
+ * Don't-look bits: instead of sweeping over every city until a sweep finds nothing, only the cities in a work queue are
+ * examined. A city leaves the queue when no move around it helps and comes back only when a move changes one of its
+ * tour edges, so after the first few sweeps the work is proportional to the number of improving moves.
+ *
+ * Deadlines:
+ * `nearestNeighborTour` and `optimize` take an optional `System.nanoTime()` deadline. Past it they stop early and
+ * return a valid but less improved tour, which lets time-budgeted solvers bound every climb, not just its start.
+ *
+ * Time Complexity:
+ * Each full pass evaluates O(n^2) moves in O(1) each and applies improving moves in O(n), where n is the number of
+ * cities. A candidate-mode sweep evaluates only O(n * k) moves, and with don't-look bits each improving move
+ * re-queues at most six cities. The number of passes depends on the starting tour
+ * but is small in practice.
+ */
+import java.util.List;
+
+public class TSPLocalSearch {
+
+    // Improvements smaller than this are treated as rounding noise
+    private static final double EPSILON = 1e-9;
+    // Longest segment moved by Or-opt
+    private static final int MAX_SEGMENT = 3;
+
+    private final int[] xs; // x coordinate of every city
+    private final int[] ys; // y coordinate of every city
+    private final int n;    // Number of cities
+    private final TSPDistanceProvider distances; // Distance lookups, or null to compute them from the coordinates
+    private final TSPNeighborLists candidates;   // Candidate lists restricting the moves, or null for full scans
+    private int[] position;                      // Position of every city in the tour (candidate mode only)
+    private int[] queue;                         // Circular work queue of cities to examine (don't-look bits)
+    private boolean[] queued;                    // True while a city is in the queue (its don't-look bit is off)
+    private int queueHead;
+    private int queueSize;
+    private double cost;                         // Cost of the tour being optimized, kept up to date by every move
+
+    // Creates a search that scans the full neighbourhoods with exact distances
+    public TSPLocalSearch(List<TSPHillClimbing.City> cities) {
+        this(cities, null, null);
+    }
+
+    // Creates a search using the given distances, restricted to the candidate lists when they are not null
+    public TSPLocalSearch(List<TSPHillClimbing.City> cities, TSPDistanceProvider distances, TSPNeighborLists candidates) {
+        n = cities.size();
+        xs = new int[n];
+        ys = new int[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = cities.get(i).x;
+            ys[i] = cities.get(i).y;
+        }
+        this.distances = distances;
+        this.candidates = candidates;
+    }
+
+    // Builds a starting tour by always moving to the closest unvisited city
+    public int[] nearestNeighborTour(int start) {
+        return nearestNeighborTour(start, Long.MAX_VALUE);
+    }
+
+    // Same, but once System.nanoTime() passes the deadline the unvisited cities are appended as they are,
+    // so a valid tour is returned on time even for very large n
+    public int[] nearestNeighborTour(int start, long deadlineNanos) {
+        int[] tour = new int[n];
+        if (n == 0) {
+            return tour;
+        }
+        // Unvisited cities are kept in tour[position + 1 ..] and swapped forward as they are visited
+        for (int i = 0; i < n; i++) {
+            tour[i] = i;
+        }
+        tour[0] = start;
+        tour[start] = 0;
+        for (int position = 0; position < n - 1; position++) {
+            if (pastDeadline(deadlineNanos)) {
+                break; // The unvisited cities stay in tour[position + 1 ..] in their current order
+            }
+            int current = tour[position];
+            int bestIndex = position + 1;
+            long bestSquared = Long.MAX_VALUE;
+            for (int k = position + 1; k < n; k++) {
+                long dx = xs[current] - xs[tour[k]];
+                long dy = ys[current] - ys[tour[k]];
+                long squared = dx * dx + dy * dy;
+                if (squared < bestSquared) {
+                    bestSquared = squared;
+                    bestIndex = k;
+                }
+            }
+            int tmp = tour[position + 1];
+            tour[position + 1] = tour[bestIndex];
+            tour[bestIndex] = tmp;
+        }
+        return tour;
+    }
+
+    // Improves the tour in place until it is a local optimum and returns its cost
+    public double optimize(int[] tour) {
+        return optimize(tour, Long.MAX_VALUE);
+    }
+
+    // Same, but stops improving once System.nanoTime() passes the deadline; the tour is valid either way.
+    // The returned cost is the starting cost plus the delta of every applied move, not a recomputation, so callers
+    // can check the deltas against an independent cost of the final tour
+    public double optimize(int[] tour, long deadlineNanos) {
+        cost = tourCost(tour);
+        if (n > 3 && candidates != null) {
+            optimizeWithCandidates(tour, deadlineNanos);
+        } else if (n > 3) {
+            // 2-opt passes are cheap, so run them to convergence before each Or-opt pass
+            do {
+                while (twoOptPass(tour) && !pastDeadline(deadlineNanos)) {
+                    // Keep sweeping until no 2-opt move helps
+                }
+            } while (!pastDeadline(deadlineNanos) && orOptPass(tour));
+        }
+        return cost;
+    }
+
+    private static boolean pastDeadline(long deadlineNanos) {
+        return deadlineNanos != Long.MAX_VALUE && System.nanoTime() >= deadlineNanos;
+    }
+
+    // Examines queued cities until the queue is empty; a city is re-queued only when one of its tour edges changes
+    private void optimizeWithCandidates(int[] tour, long deadlineNanos) {
+        attach(tour);
+        if (queue == null || queue.length != n) {
+            queue = new int[n];
+            queued = new boolean[n];
+        }
+        // Start with every city in tour order, so neighbouring work stays close together
+        queueHead = 0;
+        queueSize = 0;
+        for (int city : tour) {
+            queued[city] = false;
+        }
+        for (int city : tour) {
+            enqueue(city);
+        }
+        for (int examined = 0; queueSize > 0; examined++) {
+            // Reading the clock costs far more than one city, so it is checked every 256 cities
+            if ((examined & 255) == 0 && pastDeadline(deadlineNanos)) {
+                break;
+            }
+            int city = queue[queueHead];
+            queueHead = queueHead + 1 == n ? 0 : queueHead + 1;
+            queueSize--;
+            queued[city] = false;
+            while (twoOptAround(tour, city) || orOptAround(tour, city)) {
+                // Keep improving around the same city while moves help
+            }
+        }
+    }
+
+    // Turns the don't-look bit of a city off by putting it back in the queue
+    private void enqueue(int city) {
+        if (!queued[city]) {
+            queued[city] = true;
+            int tail = queueHead + queueSize;
+            queue[tail >= n ? tail - n : tail] = city;
+            queueSize++;
+        }
+    }
+
+    // Records the position of every city of the tour, so next, previous and move2opt can work on it
+    void attach(int[] tour) {
+        if (position == null || position.length != n) {
+            position = new int[n];
+        }
+        for (int i = 0; i < n; i++) {
+            position[tour[i]] = i;
+        }
+    }
+
+    // Tries 2-opt moves that connect city a to one of its candidates; applies the first improving one
+    private boolean twoOptAround(int[] tour, int a) {
+        for (int direction = 0; direction < 2; direction++) {
+            boolean forward = direction == 0;
+            int b = forward ? next(tour, a) : previous(tour, a);
+            double ab = distance(a, b);
+            for (int j = 0; j < candidates.k(); j++) {
+                int c = candidates.get(a, j);
+                double ac = distance(a, c);
+                // Lists are sorted, so once the new edge is no shorter than the old one nothing further can help
+                if (ac >= ab) {
+                    break;
+                }
+                int d = forward ? next(tour, c) : previous(tour, c);
+                if (c == b || d == a) {
+                    continue;
+                }
+                double delta = ac + distance(b, d) - ab - distance(c, d);
+                if (delta < -EPSILON) {
+                    cost += delta;
+                    if (forward) {
+                        move2opt(tour, a, b, c, d);
+                    } else {
+                        move2opt(tour, b, a, d, c);
+                    }
+                    enqueue(b);
+                    enqueue(c);
+                    enqueue(d);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // Tries to move the segment of 1 to 3 cities starting at city first next to one of its candidates
+    private boolean orOptAround(int[] tour, int first) {
+        int prev = previous(tour, first);
+        int last = first;
+        for (int length = 1; length <= MAX_SEGMENT; length++) {
+            if (length > 1) {
+                last = next(tour, last);
+            }
+            int next = next(tour, last);
+            if (last == prev || next == prev) {
+                return false; // Segment covers (almost) the whole tour
+            }
+            double removeGain = distance(prev, first) + distance(last, next) - distance(prev, next);
+            if (removeGain <= EPSILON) {
+                continue;
+            }
+
+            // The segment's new neighbour must be a candidate of one of its ends
+            for (int end = 0; end < 2; end++) {
+                int anchor = end == 0 ? first : last;
+                for (int j = 0; j < candidates.k(); j++) {
+                    int c = candidates.get(anchor, j);
+                    if (distance(anchor, c) >= removeGain) {
+                        break;
+                    }
+                    if (inSegment(first, length, c)) {
+                        continue;
+                    }
+                    // Try the edges on both sides of c
+                    for (int side = 0; side < 2; side++) {
+                        int u = side == 0 ? c : previous(tour, c);
+                        int v = side == 0 ? next(tour, c) : c;
+                        if (u == next || v == prev || inSegment(first, length, u) || inSegment(first, length, v)) {
+                            continue;
+                        }
+                        double uv = distance(u, v);
+                        double keep = distance(u, first) + distance(last, v) - uv - removeGain;
+                        double flip = distance(u, last) + distance(first, v) - uv - removeGain;
+                        if (keep < -EPSILON || flip < -EPSILON) {
+                            cost += Math.min(keep, flip);
+                            moveSegment(tour, prev, first, last, next, u, v, flip < keep);
+                            enqueue(prev);
+                            enqueue(next);
+                            enqueue(last);
+                            enqueue(u);
+                            enqueue(v);
+                            return true;
+                        }
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    // Moves the segment first..last (between prev and next) between the neighbours u and v, optionally reversed
+    private void moveSegment(int[] tour, int prev, int first, int last, int next, int u, int v, boolean reversed) {
+        // Three 2-opt steps: cut in the segment at u/v, close the old gap, then fix the orientation if needed
+        move2opt(tour, prev, first, u, v);    // (prev, u) and (first, v)
+        move2opt(tour, prev, u, next, last);  // (prev, next) and (u, last)
+        if (!reversed) {
+            move2opt(tour, u, last, first, v); // (u, first) and (last, v)
+        }
+    }
+
+    // Replaces the tour edges (t1, t2) and (t3, t4) with (t1, t3) and (t2, t4)
+    void move2opt(int[] tour, int t1, int t2, int t3, int t4) {
+        if (next(tour, t1) == t2) {
+            reversePath(tour, position[t2], position[t3]); // t1 -> t2 ... t3 -> t4
+        } else {
+            reversePath(tour, position[t1], position[t4]); // t2 -> t1 ... t4 -> t3
+        }
+    }
+
+    // Reverses the cyclic range of positions from .. to, or its complement if that is shorter
+    private void reversePath(int[] tour, int from, int to) {
+        int inside = to - from;
+        if (inside < 0) {
+            inside += n;
+        }
+        inside++;
+        if (inside * 2 > n) {
+            // Reversing the rest of the cycle gives the same tour
+            int newFrom = to + 1 == n ? 0 : to + 1;
+            to = from == 0 ? n - 1 : from - 1;
+            from = newFrom;
+            inside = n - inside;
+        }
+        for (int steps = inside / 2; steps > 0; steps--) {
+            int a = tour[from];
+            int b = tour[to];
+            tour[from] = b;
+            position[b] = from;
+            tour[to] = a;
+            position[a] = to;
+            from = from + 1 == n ? 0 : from + 1;
+            to = to == 0 ? n - 1 : to - 1;
+        }
+    }
+
+    // True if city c lies in the segment of the given length starting at city first
+    private boolean inSegment(int first, int length, int c) {
+        int offset = position[c] - position[first];
+        if (offset < 0) {
+            offset += n;
+        }
+        return offset < length;
+    }
+
+    int next(int[] tour, int city) {
+        int p = position[city] + 1;
+        return tour[p == n ? 0 : p];
+    }
+
+    int previous(int[] tour, int city) {
+        int p = position[city];
+        return tour[p == 0 ? n - 1 : p - 1];
+    }
+
+    // Applies every improving 2-opt move found in one sweep over the tour
+    private boolean twoOptPass(int[] tour) {
+        boolean improved = false;
+        for (int i = 0; i < n - 2; i++) {
+            int a = tour[i];
+            int b = tour[i + 1];
+            double ab = distance(a, b);
+            double abSquared = squared(a, b);
+            // When i is 0 the last edge shares city a, so stop one earlier
+            int lastJ = i == 0 ? n - 2 : n - 1;
+            for (int j = i + 2; j <= lastJ; j++) {
+                int c = tour[j];
+                int d = tour[j + 1 == n ? 0 : j + 1];
+                // A move can only help if at least one new edge is shorter than the edge it replaces
+                if (squared(a, c) >= abSquared && squared(b, d) >= squared(c, d)) {
+                    continue;
+                }
+                double delta = distance(a, c) + distance(b, d) - ab - distance(c, d);
+                if (delta < -EPSILON) {
+                    cost += delta;
+                    reverseCyclic(tour, i + 1, j);
+                    // Reversing the other side of the cycle may have moved a as well
+                    a = tour[i];
+                    b = tour[i + 1];
+                    ab = distance(a, b);
+                    abSquared = squared(a, b);
+                    improved = true;
+                }
+            }
+        }
+        return improved;
+    }
+
+    // Applies every improving Or-opt move found in one sweep over the tour
+    private boolean orOptPass(int[] tour) {
+        boolean improved = false;
+        for (int length = 1; length <= MAX_SEGMENT; length++) {
+            for (int i = 0; i + length <= n; i++) {
+                if (tryMoveSegment(tour, i, length)) {
+                    improved = true;
+                }
+            }
+        }
+        return improved;
+    }
+
+    // Tries to reinsert the segment tour[i .. i + length - 1] at its best position; returns true if it moved
+    private boolean tryMoveSegment(int[] tour, int i, int length) {
+        int end = i + length - 1;
+        int first = tour[i];
+        int last = tour[end];
+        int prev = tour[i == 0 ? n - 1 : i - 1];
+        int next = tour[end + 1 == n ? 0 : end + 1];
+        if (prev == next) {
+            return false; // Only the segment and one city left
+        }
+        // Cost saved by cutting the segment out and closing the gap
+        double removeGain = distance(prev, first) + distance(last, next) - distance(prev, next);
+
+        double bestDelta = -EPSILON;
+        int bestJ = -1;
+        boolean bestReversed = false;
+        for (int j = 0; j < n - 1; j++) {
+            // Insert between tour[j] and tour[j + 1]; both must lie outside the segment and not be its old gap
+            if (j >= i - 1 && j <= end) {
+                continue;
+            }
+            int c = tour[j];
+            int d = tour[j + 1];
+            // Inserting costs at least the longer new edge minus cd, and cd is at most |dx| + |dy|,
+            // so far-away edges are rejected without any sqrt
+            double limit = removeGain + Math.abs(xs[c] - xs[d]) + Math.abs(ys[c] - ys[d]) + bestDelta;
+            if (limit <= 0) {
+                continue;
+            }
+            // Cheapest test first: c must be within the limit of the segment's ends along the x axis
+            if (Math.min(Math.abs(xs[c] - xs[first]), Math.abs(xs[c] - xs[last])) >= limit) {
+                continue;
+            }
+            double limitSquared = limit * limit;
+            if (Math.max(squared(c, first), squared(last, d)) >= limitSquared
+                    && Math.max(squared(c, last), squared(first, d)) >= limitSquared) {
+                continue;
+            }
+            double cd = distance(c, d);
+            double forward = distance(c, first) + distance(last, d) - cd - removeGain;
+            double backward = distance(c, last) + distance(first, d) - cd - removeGain;
+            if (forward < bestDelta) {
+                bestDelta = forward;
+                bestJ = j;
+                bestReversed = false;
+            }
+            if (backward < bestDelta) {
+                bestDelta = backward;
+                bestJ = j;
+                bestReversed = true;
+            }
+        }
+        if (bestJ < 0) {
+            return false;
+        }
+        cost += bestDelta;
+
+        if (bestJ > end) {
+            // Segment moves forward: [segment][block] becomes [block][segment]
+            if (!bestReversed) {
+                reverse(tour, i, end);
+            }
+            reverse(tour, end + 1, bestJ);
+            reverse(tour, i, bestJ);
+        } else {
+            // Segment moves backward: [block][segment] becomes [segment][block]
+            reverse(tour, bestJ + 1, i - 1);
+            if (!bestReversed) {
+                reverse(tour, i, end);
+            }
+            reverse(tour, bestJ + 1, end);
+        }
+        return true;
+    }
+
+    // Reverses tour[from .. to], or the complementary part of the cycle if that is shorter (same tour either way)
+    private void reverseCyclic(int[] tour, int from, int to) {
+        int inside = to - from + 1;
+        if (inside * 2 <= n) {
+            reverse(tour, from, to);
+            return;
+        }
+        // Reverse the wrapping range to+1 .. from-1 instead
+        int i = to + 1;
+        int j = from - 1 + n;
+        for (int steps = (n - inside) / 2; steps > 0; steps--) {
+            int ii = i >= n ? i - n : i;
+            int jj = j >= n ? j - n : j;
+            int tmp = tour[ii];
+            tour[ii] = tour[jj];
+            tour[jj] = tmp;
+            i++;
+            j--;
+        }
+    }
+
+    // Reverses tour[from .. to] in place
+    private static void reverse(int[] tour, int from, int to) {
+        while (from < to) {
+            int tmp = tour[from];
+            tour[from++] = tour[to];
+            tour[to--] = tmp;
+        }
+    }
+
+    // Squared Euclidean distance between two cities
+    private double squared(int a, int b) {
+        double dx = xs[a] - xs[b];
+        double dy = ys[a] - ys[b];
+        return dx * dx + dy * dy;
+    }
+
+    // Distance between two cities, from the provider when there is one
+    double distance(int a, int b) {
+        if (distances != null) {
+            return distances.distance(a, b);
+        }
+        double dx = xs[a] - xs[b];
+        double dy = ys[a] - ys[b];
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    // Total length of the closed tour
+    public double tourCost(int[] tour) {
+        double cost = 0.0;
+        for (int i = 0; i < tour.length - 1; i++) {
+            cost += distance(tour[i], tour[i + 1]);
+        }
+        return tour.length == 0 ? 0.0 : cost + distance(tour[tour.length - 1], tour[0]);
+    }
+}
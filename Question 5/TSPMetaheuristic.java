@@ -0,0 +1,481 @@
+/**
+ * The TSPMetaheuristic class is the common base of the strategies that keep searching past the first local optimum,
+ * where the plain hill climbing of `TSPHillClimbing` stops. All of them work on the same `City` list and return a
+ * `TSPSolution`, and all of them run until a time budget is used up.
+ *
+ * Strategies:
+ * 1. `SimulatedAnnealing`: random candidate 2-opt moves. Worse moves are accepted with probability exp(-delta / T),
+ *    and the temperature T is multiplied by the cooling rate after every block of moves (geometric cooling), or
+ *    lowered along the time budget so that the search freezes exactly at the deadline. A tour better than the best
+ *    snapshot is copied just before a worsening move leaves it, so no best tour is lost between temperature steps.
+ * 2. `TabuSearch`: each iteration applies the best candidate 2-opt move around all cities (or a random sample of them),
+ *    even if it makes the tour longer. Cities whose edges were just changed are tabu for a few iterations unless the move gives
+ *    a new best tour (aspiration). After a long stretch without a new best, the search restarts from the best tour
+ *    shaken by a few random moves.
+ * 3. `GuidedLocalSearch`: candidate 2-opt local search on an augmented cost d(e) + lambda * penalty(e). At every
+ *    local optimum the tour edges with the highest utility d(e) / (1 + penalty(e)) are penalized, and only their
+ *    end cities are searched again. The deadline is also checked inside that local search.
+ *
+ * Shared machinery:
+ * Moves are applied through `TSPLocalSearch` (position array, in-place reversals) with distances from a
+ * `TSPDistanceProvider` and candidates from `TSPNeighborLists`. The inner loops only touch preallocated arrays.
+ * Every strategy starts and finishes with a plain `TSPLocalSearch.optimize`, bounded by the same deadline as the
+ * search: the budget covers the whole run, and `solve` counts building the nearest-neighbour tour against it too.
+ * The final polish therefore only runs when the search stops before the deadline (for example a frozen annealing).
+ *
+ * Time Complexity:
+ * Each strategy runs for the given time budget; a single move costs O(k) to find (k candidates per city) plus O(n)
+ * at most to apply.
+ */
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public abstract class TSPMetaheuristic {
+
+    // Improvements smaller than this are treated as rounding noise
+    static final double EPSILON = 1e-9;
+
+    final List<TSPHillClimbing.City> cities;
+    final int n;
+    final TSPDistanceProvider distances;
+    final TSPNeighborLists candidates;
+    final TSPLocalSearch engine;  // Applies moves and does the final polish
+    final Random random;
+    int[] bestTour;               // Snapshot of the best tour seen
+    double bestCost;
+
+    TSPMetaheuristic(List<TSPHillClimbing.City> cities, TSPDistanceProvider distances,
+                     TSPNeighborLists candidates, long seed) {
+        this.cities = cities;
+        this.n = cities.size();
+        this.distances = distances;
+        this.candidates = candidates;
+        this.engine = new TSPLocalSearch(cities, distances, candidates);
+        this.random = new Random(seed);
+        this.bestTour = new int[n];
+    }
+
+    // Name used in reports
+    public abstract String name();
+
+    // Searches from the given tour until the budget is used up, leaving the tour in place
+    abstract void search(int[] tour, double cost, long deadline);
+
+    // Improves the tour within the time budget; the tour array receives the best tour found and its cost is returned
+    public double run(int[] tour, long budgetMillis) {
+        return runUntil(tour, System.nanoTime() + budgetMillis * 1_000_000L);
+    }
+
+    // Same, until System.nanoTime() passes the deadline
+    double runUntil(int[] tour, long deadline) {
+        double cost = engine.optimize(tour, deadline);
+        System.arraycopy(tour, 0, bestTour, 0, n);
+        bestCost = cost;
+        if (n > 7) {
+            engine.attach(tour);
+            search(tour, cost, deadline);
+        }
+        // Polish the best tour with plain local search
+        System.arraycopy(bestTour, 0, tour, 0, n);
+        return engine.optimize(tour, deadline);
+    }
+
+    // Builds a nearest-neighbour tour, runs the strategy on it and returns the result as a TSPSolution, all within
+    // the time budget
+    public TSPHillClimbing.TSPSolution solve(long budgetMillis) {
+        long deadline = System.nanoTime() + budgetMillis * 1_000_000L;
+        int[] tour = engine.nearestNeighborTour(random.nextInt(n), deadline);
+        runUntil(tour, deadline);
+        List<TSPHillClimbing.City> route = new ArrayList<>(n);
+        for (int city : tour) {
+            route.add(cities.get(city));
+        }
+        return new TSPHillClimbing.TSPSolution(route);
+    }
+
+    // Copies the tour into the best snapshot
+    void saveBest(int[] tour, double cost) {
+        System.arraycopy(tour, 0, bestTour, 0, n);
+        bestCost = cost;
+    }
+
+    // Cost change of the 2-opt move replacing (a, b) and (c, d) with (a, c) and (b, d)
+    double twoOptDelta(int a, int b, int c, int d) {
+        return distances.distance(a, c) + distances.distance(b, d) - distances.distance(a, b) - distances.distance(c, d);
+    }
+
+    // Simulated annealing over random candidate 2-opt moves with geometric cooling
+    public static class SimulatedAnnealing extends TSPMetaheuristic {
+        private final double initialTemperature; // Starting temperature, or <= 0 to estimate it from the tour
+        private final double coolingRate;        // Factor applied after each block of moves, or <= 0 to cool along the budget
+        private final int movesPerTemperature;   // Moves tried at each temperature, or <= 0 for 10 * n
+
+        public SimulatedAnnealing(List<TSPHillClimbing.City> cities, TSPDistanceProvider distances,
+                                  TSPNeighborLists candidates, long seed,
+                                  double initialTemperature, double coolingRate, int movesPerTemperature) {
+            super(cities, distances, candidates, seed);
+            this.initialTemperature = initialTemperature;
+            this.coolingRate = coolingRate;
+            this.movesPerTemperature = movesPerTemperature;
+        }
+
+        @Override
+        public String name() {
+            return "Simulated annealing";
+        }
+
+        @Override
+        void search(int[] tour, double cost, long deadline) {
+            int k = candidates.k();
+            int block = movesPerTemperature > 0 ? movesPerTemperature : 10 * n;
+            double startTemperature = initialTemperature > 0 ? initialTemperature : estimateTemperature(tour);
+            double temperature = startTemperature;
+            double frozen = startTemperature * 1e-4;
+            long start = System.nanoTime();
+
+            while (temperature > frozen) {
+                for (int move = 0; move < block; move++) {
+                    // Check the clock only every 1024 moves
+                    if ((move & 1023) == 0 && System.nanoTime() >= deadline) {
+                        if (cost < bestCost - EPSILON) {
+                            saveBest(tour, cost);
+                        }
+                        return;
+                    }
+                    int a = random.nextInt(n);
+                    int c = candidates.get(a, random.nextInt(k));
+                    boolean forward = random.nextBoolean();
+                    int b = forward ? engine.next(tour, a) : engine.previous(tour, a);
+                    int d = forward ? engine.next(tour, c) : engine.previous(tour, c);
+                    if (c == b || d == a) {
+                        continue;
+                    }
+                    double delta = twoOptDelta(a, b, c, d);
+                    if (delta < 0 || random.nextDouble() < Math.exp(-delta / temperature)) {
+                        // About to leave a tour better than the snapshot: copy it first. Improving moves only lower
+                        // the cost, so copying when a worse move is accepted never loses a best tour, and the
+                        // copies stay rare at any temperature
+                        if (delta > 0 && cost < bestCost - EPSILON) {
+                            saveBest(tour, cost);
+                        }
+                        if (forward) {
+                            engine.move2opt(tour, a, b, c, d);
+                        } else {
+                            engine.move2opt(tour, b, a, d, c);
+                        }
+                        cost += delta;
+                    }
+                }
+                if (cost < bestCost - EPSILON) {
+                    saveBest(tour, cost);
+                }
+                if (coolingRate > 0) {
+                    temperature *= coolingRate;
+                } else {
+                    // Cool along the time budget so the search freezes exactly at the deadline
+                    double progress = (double) (System.nanoTime() - start) / Math.max(1, deadline - start);
+                    temperature = startTemperature * Math.pow(frozen / startTemperature, Math.min(1.0, progress));
+                }
+            }
+        }
+
+        // Starting temperature: the average worsening of random candidate moves, accepted about a third of the time
+        private double estimateTemperature(int[] tour) {
+            double total = 0;
+            int count = 0;
+            for (int sample = 0; sample < 1000; sample++) {
+                int a = random.nextInt(n);
+                int c = candidates.get(a, random.nextInt(candidates.k()));
+                int b = engine.next(tour, a);
+                int d = engine.next(tour, c);
+                if (c == b || d == a) {
+                    continue;
+                }
+                double delta = twoOptDelta(a, b, c, d);
+                if (delta > 0) {
+                    total += delta;
+                    count++;
+                }
+            }
+            return count == 0 ? 1.0 : total / count;
+        }
+    }
+
+    // Tabu search over candidate 2-opt moves around a random sample of cities
+    public static class TabuSearch extends TSPMetaheuristic {
+        private final int sampleSize; // Cities whose candidate moves are scanned per iteration (>= n scans them all)
+        private final int tenure;     // Iterations a changed city stays tabu
+        private final long[] tabuUntil;
+
+        // Iterations without a new best tour before the search restarts from a shaken best tour
+        private static final int STALL_ITERATIONS = 200;
+        // Random moves applied by such a restart
+        private static final int KICK_MOVES = 8;
+
+        public TabuSearch(List<TSPHillClimbing.City> cities, TSPDistanceProvider distances,
+                          TSPNeighborLists candidates, long seed, int sampleSize, int tenure) {
+            super(cities, distances, candidates, seed);
+            this.sampleSize = sampleSize;
+            this.tenure = tenure;
+            this.tabuUntil = new long[cities.size()];
+        }
+
+        @Override
+        public String name() {
+            return "Tabu search";
+        }
+
+        @Override
+        void search(int[] tour, double cost, long deadline) {
+            int k = candidates.k();
+            long lastImprovement = 0;
+            for (long iteration = 1; (iteration & 15) != 0 || System.nanoTime() < deadline; iteration++) {
+                // Stagnation: go back to the best tour and shake it with a few random candidate moves
+                if (iteration - lastImprovement > STALL_ITERATIONS) {
+                    System.arraycopy(bestTour, 0, tour, 0, n);
+                    engine.attach(tour);
+                    cost = bestCost + kick(tour, KICK_MOVES);
+                    Arrays.fill(tabuUntil, 0);
+                    lastImprovement = iteration;
+                }
+
+                double bestDelta = Double.MAX_VALUE;
+                int moveA = -1, moveB = -1, moveC = -1, moveD = -1;
+                boolean moveForward = true;
+
+                boolean scanAll = sampleSize >= n;
+                for (int sample = 0; sample < (scanAll ? n : sampleSize); sample++) {
+                    int a = scanAll ? sample : random.nextInt(n);
+                    for (int direction = 0; direction < 2; direction++) {
+                        boolean forward = direction == 0;
+                        int b = forward ? engine.next(tour, a) : engine.previous(tour, a);
+                        for (int j = 0; j < k; j++) {
+                            int c = candidates.get(a, j);
+                            int d = forward ? engine.next(tour, c) : engine.previous(tour, c);
+                            if (c == b || d == a) {
+                                continue;
+                            }
+                            double delta = twoOptDelta(a, b, c, d);
+                            if (delta >= bestDelta) {
+                                continue;
+                            }
+                            boolean tabu = tabuUntil[a] > iteration || tabuUntil[c] > iteration;
+                            // Aspiration: a tabu move is still allowed if it beats the best tour
+                            if (tabu && cost + delta >= bestCost - EPSILON) {
+                                continue;
+                            }
+                            bestDelta = delta;
+                            moveA = a;
+                            moveB = b;
+                            moveC = c;
+                            moveD = d;
+                            moveForward = forward;
+                        }
+                    }
+                }
+                if (moveA < 0) {
+                    continue;
+                }
+
+                if (moveForward) {
+                    engine.move2opt(tour, moveA, moveB, moveC, moveD);
+                } else {
+                    engine.move2opt(tour, moveB, moveA, moveD, moveC);
+                }
+                cost += bestDelta;
+                long until = iteration + tenure + random.nextInt(tenure + 1);
+                tabuUntil[moveA] = until;
+                tabuUntil[moveB] = until;
+                tabuUntil[moveC] = until;
+                tabuUntil[moveD] = until;
+                if (cost < bestCost - EPSILON) {
+                    saveBest(tour, cost);
+                    lastImprovement = iteration;
+                }
+            }
+        }
+
+        // Applies random candidate 2-opt moves and returns the cost change
+        private double kick(int[] tour, int moves) {
+            int k = candidates.k();
+            double delta = 0;
+            for (int move = 0; move < moves; move++) {
+                int a = random.nextInt(n);
+                int b = engine.next(tour, a);
+                int c = candidates.get(a, random.nextInt(k));
+                int d = engine.next(tour, c);
+                if (c == b || d == a) {
+                    continue;
+                }
+                delta += twoOptDelta(a, b, c, d);
+                engine.move2opt(tour, a, b, c, d);
+            }
+            return delta;
+        }
+    }
+
+    // Guided local search: candidate 2-opt on edge lengths plus lambda times the edge penalties
+    public static class GuidedLocalSearch extends TSPMetaheuristic {
+        private final double alpha; // Penalty weight relative to the average edge length of the first local optimum
+        private double lambda;
+
+        // Open-addressing table of edge penalties (key = smaller city << 32 | larger city)
+        private long[] penaltyKeys = new long[1024];
+        private int[] penaltyValues = new int[1024];
+        private int penaltyCount;
+
+        // Queue of cities to re-examine (don't-look bits)
+        private final int[] queue;
+        private final boolean[] queued;
+        private int queueHead;
+        private int queueSize;
+
+        public GuidedLocalSearch(List<TSPHillClimbing.City> cities, TSPDistanceProvider distances,
+                                 TSPNeighborLists candidates, long seed, double alpha) {
+            super(cities, distances, candidates, seed);
+            this.alpha = alpha;
+            this.queue = new int[cities.size()];
+            this.queued = new boolean[cities.size()];
+            Arrays.fill(penaltyKeys, -1L);
+        }
+
+        @Override
+        public String name() {
+            return "Guided local search";
+        }
+
+        @Override
+        void search(int[] tour, double cost, long deadline) {
+            lambda = alpha * cost / n;
+            for (int city = 0; city < n; city++) {
+                activate(city);
+            }
+
+            while (System.nanoTime() < deadline) {
+                // Local search on the augmented cost until no active city improves, or the time is up
+                for (int examined = 1; queueSize > 0; examined++) {
+                    if ((examined & 255) == 0 && System.nanoTime() >= deadline) {
+                        break;
+                    }
+                    int a = queue[queueHead];
+                    queueHead = queueHead + 1 == n ? 0 : queueHead + 1;
+                    queueSize--;
+                    queued[a] = false;
+                    cost += improveCity(tour, a);
+                }
+
+                // Local optimum of the augmented cost: keep it if it is the best real tour so far
+                if (cost < bestCost - EPSILON) {
+                    saveBest(tour, cost);
+                }
+
+                // Penalize the edges with maximum utility and wake up their end cities
+                double maxUtility = -1;
+                for (int i = 0; i < n; i++) {
+                    int a = tour[i];
+                    int b = tour[i + 1 == n ? 0 : i + 1];
+                    maxUtility = Math.max(maxUtility, distances.distance(a, b) / (1 + penalty(a, b)));
+                }
+                for (int i = 0; i < n; i++) {
+                    int a = tour[i];
+                    int b = tour[i + 1 == n ? 0 : i + 1];
+                    if (distances.distance(a, b) / (1 + penalty(a, b)) >= maxUtility - EPSILON) {
+                        addPenalty(a, b);
+                        activate(a);
+                        activate(b);
+                    }
+                }
+            }
+        }
+
+        // Applies the first augmented-cost improving 2-opt move around city a; returns the real cost change
+        private double improveCity(int[] tour, int a) {
+            for (int direction = 0; direction < 2; direction++) {
+                boolean forward = direction == 0;
+                int b = forward ? engine.next(tour, a) : engine.previous(tour, a);
+                for (int j = 0; j < candidates.k(); j++) {
+                    int c = candidates.get(a, j);
+                    int d = forward ? engine.next(tour, c) : engine.previous(tour, c);
+                    if (c == b || d == a) {
+                        continue;
+                    }
+                    double augmented = augmented(a, c) + augmented(b, d) - augmented(a, b) - augmented(c, d);
+                    if (augmented < -EPSILON) {
+                        double delta = twoOptDelta(a, b, c, d);
+                        if (forward) {
+                            engine.move2opt(tour, a, b, c, d);
+                        } else {
+                            engine.move2opt(tour, b, a, d, c);
+                        }
+                        activate(a);
+                        activate(b);
+                        activate(c);
+                        activate(d);
+                        return delta;
+                    }
+                }
+            }
+            return 0;
+        }
+
+        private double augmented(int a, int b) {
+            return distances.distance(a, b) + lambda * penalty(a, b);
+        }
+
+        private void activate(int city) {
+            if (!queued[city]) {
+                queued[city] = true;
+                int tail = queueHead + queueSize;
+                queue[tail >= n ? tail - n : tail] = city;
+                queueSize++;
+            }
+        }
+
+        private static long edgeKey(int a, int b) {
+            return a < b ? ((long) a << 32) | b : ((long) b << 32) | a;
+        }
+
+        private int slot(long key, long[] keys) {
+            int mask = keys.length - 1;
+            int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+            while (keys[slot] != -1L && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private int penalty(int a, int b) {
+            long key = edgeKey(a, b);
+            int slot = slot(key, penaltyKeys);
+            return penaltyKeys[slot] == key ? penaltyValues[slot] : 0;
+        }
+
+        private void addPenalty(int a, int b) {
+            long key = edgeKey(a, b);
+            int slot = slot(key, penaltyKeys);
+            if (penaltyKeys[slot] == key) {
+                penaltyValues[slot]++;
+                return;
+            }
+            penaltyKeys[slot] = key;
+            penaltyValues[slot] = 1;
+            // Keep the table at most half full; growing is rare compared with lookups
+            if (++penaltyCount * 2 > penaltyKeys.length) {
+                long[] oldKeys = penaltyKeys;
+                int[] oldValues = penaltyValues;
+                penaltyKeys = new long[oldKeys.length * 2];
+                penaltyValues = new int[oldKeys.length * 2];
+                Arrays.fill(penaltyKeys, -1L);
+                for (int i = 0; i < oldKeys.length; i++) {
+                    if (oldKeys[i] != -1L) {
+                        int s = slot(oldKeys[i], penaltyKeys);
+                        penaltyKeys[s] = oldKeys[i];
+                        penaltyValues[s] = oldValues[i];
+                    }
+                }
+            }
+        }
+    }
+}
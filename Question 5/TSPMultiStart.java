@@ -0,0 +1,158 @@
+/**
+ * The TSPMultiStart class runs many independent hill climbs on all cores and keeps the best tour any of them finds,
+ * instead of relying on the single random restart of `TSPHillClimbing.TSPhillClimbing.solve`.
+ *
+ * How it works:
+ * 1. Start number s uses its own `Random(seed + s)` to pick the first city of a nearest-neighbour tour, which
+ *    `TSPLocalSearch` then improves with candidate 2-opt and Or-opt moves. The climb for a given start therefore
+ *    depends only on the seed and s, never on thread timing.
+ * 2. Workers take start numbers from a shared counter until the start limit or the time budget is reached. The
+ *    deadline is also passed into the climb itself, so neither the O(n^2) nearest-neighbour tour nor the local
+ *    search can run far past the budget. Start 0 always runs, so even a budget that has already expired returns the
+ *    (possibly unfinished) first start tour instead of nothing.
+ * 3. Every finished climb is published to an `AtomicReference` holding the best tour so far. The update is a lock-free
+ *    compare-and-set loop that keeps the lower cost, and on equal cost the lower start number.
+ * 4. The distance provider and neighbour lists are built once and shared. Workers that need a distance cache get
+ *    their own through `TSPDistanceProvider.forThread`.
+ * 5. A worker that throws fails the whole solve with an IllegalStateException instead of silently dropping its
+ *    climbs, and the pool is shut down with `shutdownNow` on every exit path, including interruption.
+ *
+ * Reproducibility:
+ * With only a start limit, the same seed always runs the same climbs and returns the same tour, whatever the number of
+ * threads. With a time budget, how many starts run, and how far the last ones get, depends on the machine, but the
+ * result is still the best of the climbs that ran.
+ *
+ * Time Complexity:
+ * Each climb costs one nearest-neighbour tour (O(n^2)) plus the candidate local search. Starts spread evenly over
+ * the worker threads.
+ */
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class TSPMultiStart {
+
+    // Number of nearest neighbours each city may be connected to
+    private static final int CANDIDATE_NEIGHBORS = 10;
+
+    private final List<TSPHillClimbing.City> cities;
+    private final long seed;
+    private final TSPDistanceProvider distances;
+    private final TSPNeighborLists candidates;
+
+    public TSPMultiStart(List<TSPHillClimbing.City> cities, long seed) {
+        this.cities = cities;
+        this.seed = seed;
+        this.distances = TSPDistanceProvider.forCities(cities);
+        this.candidates = TSPNeighborLists.build(cities, CANDIDATE_NEIGHBORS);
+    }
+
+    // Best tour found so far, with the start that produced it
+    private static final class Incumbent {
+        final TSPHillClimbing.TSPSolution solution;
+        final int start;
+
+        Incumbent(TSPHillClimbing.TSPSolution solution, int start) {
+            this.solution = solution;
+            this.start = start;
+        }
+
+        boolean isBetterThan(Incumbent other) {
+            if (other == null) {
+                return true;
+            }
+            if (solution.cost != other.solution.cost) {
+                return solution.cost < other.solution.cost;
+            }
+            return start < other.start;
+        }
+    }
+
+    // Runs up to maxStarts climbs (at least one) on the given number of threads, stopping when the time budget runs out
+    public TSPHillClimbing.TSPSolution solve(int maxStarts, long timeBudgetMillis, int threads) throws InterruptedException {
+        long deadline = timeBudgetMillis > 0 ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeBudgetMillis) : Long.MAX_VALUE;
+        int starts = Math.max(1, maxStarts);
+        AtomicInteger nextStart = new AtomicInteger();
+        AtomicReference<Incumbent> best = new AtomicReference<>();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> workers = new ArrayList<>(threads);
+            for (int t = 0; t < threads; t++) {
+                workers.add(executor.submit(() -> {
+                    TSPLocalSearch search = new TSPLocalSearch(cities, distances.forThread(), candidates);
+                    int start;
+                    while ((start = nextStart.getAndIncrement()) < starts && (start == 0 || System.nanoTime() < deadline)) {
+                        publish(best, new Incumbent(climb(search, start, deadline), start));
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                try {
+                    worker.get();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("A hill climb failed", e.getCause());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return best.get().solution;
+    }
+
+    // Runs the climb for one start number, cutting it short at the deadline
+    private TSPHillClimbing.TSPSolution climb(TSPLocalSearch search, int start, long deadline) {
+        Random random = new Random(seed + start);
+        int[] tour = search.nearestNeighborTour(random.nextInt(cities.size()), deadline);
+        search.optimize(tour, deadline);
+        List<TSPHillClimbing.City> route = new ArrayList<>(tour.length);
+        for (int city : tour) {
+            route.add(cities.get(city));
+        }
+        return new TSPHillClimbing.TSPSolution(route);
+    }
+
+    // Replaces the shared best when the candidate beats it (lock-free)
+    private static void publish(AtomicReference<Incumbent> best, Incumbent candidate) {
+        Incumbent current;
+        do {
+            current = best.get();
+            if (!candidate.isBetterThan(current)) {
+                return;
+            }
+        } while (!best.compareAndSet(current, candidate));
+    }
+
+    // Main method comparing runs with different thread counts on the same seed
+    public static void main(String[] args) throws InterruptedException {
+        Random random = new Random(1);
+        List<TSPHillClimbing.City> cities = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            cities.add(new TSPHillClimbing.City(random.nextInt(10000), random.nextInt(10000)));
+        }
+
+        TSPMultiStart solver = new TSPMultiStart(cities, 42);
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int threads : new int[]{1, cores}) {
+            long start = System.nanoTime();
+            TSPHillClimbing.TSPSolution solution = solver.solve(32, 0, threads);
+            System.out.printf("%d threads, 32 starts: cost %.2f in %.1f ms%n",
+                    threads, solution.cost, (System.nanoTime() - start) / 1e6);
+        }
+
+        // Time-budgeted runs: as many starts as fit into one second, then a budget too short for a single climb
+        for (long budget : new long[]{1000, 5}) {
+            long start = System.nanoTime();
+            TSPHillClimbing.TSPSolution budgeted = solver.solve(Integer.MAX_VALUE, budget, cores);
+            System.out.printf("%d ms budget on %d threads: cost %.2f in %.1f ms%n",
+                    budget, cores, budgeted.cost, (System.nanoTime() - start) / 1e6);
+        }
+    }
+}
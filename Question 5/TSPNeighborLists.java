@@ -0,0 +1,177 @@
+/**
+ * The TSPNeighborLists class holds, for every city, its k nearest other cities sorted by distance. Local search only
+ * tries moves that connect a city to one of its candidates, which cuts each scan from O(n) to O(k) per city.
+ *
+ * How the lists are built:
+ * 1. The cities are bucketed into a uniform grid with about two cities per cell (a counting sort, no objects per city).
+ * 2. For each city the cells are searched ring by ring around its own cell, keeping the k best in a small max-heap.
+ * 3. The search stops once k cities are found and the next ring cannot contain anything closer than the current k-th.
+ *
+ * Time Complexity:
+ * O(n * k log k) for roughly uniform inputs, where n is the number of cities. Memory is O(n * k) ints.
+ */
+import java.util.List;
+
+public class TSPNeighborLists {
+
+    private final int[] neighbors; // neighbors[i * k + j] = j-th nearest city to city i
+    private final int k;           // Candidates per city
+
+    private TSPNeighborLists(int[] neighbors, int k) {
+        this.neighbors = neighbors;
+        this.k = k;
+    }
+
+    // Number of candidates per city
+    public int k() {
+        return k;
+    }
+
+    // The j-th nearest city to city i
+    public int get(int i, int j) {
+        return neighbors[i * k + j];
+    }
+
+    // Builds the k-nearest-neighbour lists of the cities using a uniform grid
+    public static TSPNeighborLists build(List<TSPHillClimbing.City> cities, int k) {
+        int n = cities.size();
+        k = Math.max(0, Math.min(k, n - 1));
+        int[] xs = new int[n];
+        int[] ys = new int[n];
+        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+        for (int i = 0; i < n; i++) {
+            xs[i] = cities.get(i).x;
+            ys[i] = cities.get(i).y;
+            minX = Math.min(minX, xs[i]);
+            minY = Math.min(minY, ys[i]);
+            maxX = Math.max(maxX, xs[i]);
+            maxY = Math.max(maxY, ys[i]);
+        }
+        int[] neighbors = new int[n * k];
+        if (k == 0) {
+            return new TSPNeighborLists(neighbors, 0);
+        }
+
+        // Grid with about two cities per cell
+        double width = Math.max(1.0, (double) maxX - minX + 1);
+        double height = Math.max(1.0, (double) maxY - minY + 1);
+        double cellSize = Math.max(1.0, Math.sqrt(width * height / Math.max(1, n / 2)));
+        int columns = (int) Math.ceil(width / cellSize);
+        int rows = (int) Math.ceil(height / cellSize);
+
+        // Counting sort of the cities by cell
+        int[] cellOf = new int[n];
+        int[] cellStart = new int[columns * rows + 1];
+        for (int i = 0; i < n; i++) {
+            int column = (int) ((xs[i] - (long) minX) / cellSize);
+            int row = (int) ((ys[i] - (long) minY) / cellSize);
+            cellOf[i] = row * columns + column;
+            cellStart[cellOf[i] + 1]++;
+        }
+        for (int c = 0; c < columns * rows; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+        int[] cellItems = new int[n];
+        int[] fill = cellStart.clone();
+        for (int i = 0; i < n; i++) {
+            cellItems[fill[cellOf[i]]++] = i;
+        }
+
+        // Max-heap of the best candidates found so far (by squared distance)
+        int[] heapCity = new int[k];
+        long[] heapDist = new long[k];
+        for (int i = 0; i < n; i++) {
+            int size = 0;
+            int column = cellOf[i] % columns;
+            int row = cellOf[i] / columns;
+            for (int ring = 0; ; ring++) {
+                // Nothing in this ring can be closer than (ring - 1) cells, so stop once the heap beats that
+                if (size == k) {
+                    double reach = (ring - 1) * cellSize;
+                    if (ring > 0 && reach > 0 && reach * reach >= heapDist[0]) {
+                        break;
+                    }
+                }
+                if (ring > columns && ring > rows) {
+                    break;
+                }
+                for (int r = row - ring; r <= row + ring; r++) {
+                    if (r < 0 || r >= rows) {
+                        continue;
+                    }
+                    // Inner rows of the ring only contribute their two border cells
+                    int step = (r == row - ring || r == row + ring) ? 1 : Math.max(1, 2 * ring);
+                    for (int c = column - ring; c <= column + ring; c += step) {
+                        if (c < 0 || c >= columns) {
+                            continue;
+                        }
+                        int cell = r * columns + c;
+                        for (int p = cellStart[cell]; p < cellStart[cell + 1]; p++) {
+                            int other = cellItems[p];
+                            if (other == i) {
+                                continue;
+                            }
+                            long dx = xs[i] - xs[other];
+                            long dy = ys[i] - ys[other];
+                            long d = dx * dx + dy * dy;
+                            if (size < k) {
+                                heapCity[size] = other;
+                                heapDist[size] = d;
+                                siftUp(heapCity, heapDist, size++);
+                            } else if (d < heapDist[0]) {
+                                heapCity[0] = other;
+                                heapDist[0] = d;
+                                siftDown(heapCity, heapDist, 0, size);
+                            }
+                        }
+                    }
+                }
+            }
+
+            // Pop the heap from the farthest down, filling the list back to front
+            for (int j = size - 1; j >= 0; j--) {
+                neighbors[i * k + j] = heapCity[0];
+                heapCity[0] = heapCity[j];
+                heapDist[0] = heapDist[j];
+                siftDown(heapCity, heapDist, 0, j);
+            }
+        }
+        return new TSPNeighborLists(neighbors, k);
+    }
+
+    private static void siftUp(int[] city, long[] dist, int index) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (dist[parent] >= dist[index]) {
+                return;
+            }
+            swap(city, dist, parent, index);
+            index = parent;
+        }
+    }
+
+    private static void siftDown(int[] city, long[] dist, int index, int size) {
+        while (true) {
+            int largest = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < size && dist[left] > dist[largest]) largest = left;
+            if (right < size && dist[right] > dist[largest]) largest = right;
+            if (largest == index) {
+                return;
+            }
+            swap(city, dist, largest, index);
+            index = largest;
+        }
+    }
+
+    private static void swap(int[] city, long[] dist, int a, int b) {
+        int c = city[a];
+        city[a] = city[b];
+        city[b] = c;
+        long d = dist[a];
+        dist[a] = dist[b];
+        dist[b] = d;
+    }
+}
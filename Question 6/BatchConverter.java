@@ -0,0 +1,311 @@
+/**
+ * BatchConverter is the headless command-line front end of `ConversionEngine`, for servers and cron jobs where the
+ * Swing window cannot run. It uses the same executor pipeline as FileConversionApp.
+ *
+ * Usage:
+ *   java BatchConverter <directory | glob> <conversion type> [--concurrency N] [--virtual] [--journal FILE]
+ *                        [--cache DIR] [--cache-size MB] [--cache-links] [--schedule fifo|sjf|fair]
+ *
+ * - A directory converts every regular file directly inside it; a glob such as `scans/*.pdf` converts the matching
+ *   files of its directory.
+ * - The conversion type is one of `ConversionEngine.CONVERSION_TYPES`, case-insensitive, with spaces optionally
+ *   written as dashes (e.g. `pdf-to-docx`, `image-resize`).
+ * - `--concurrency` sets the number of files converted at once; `--virtual` uses one virtual thread per file.
+ * - `--journal` records every conversion in a `ConversionJournal`; running the same command again skips the files
+ *   that were already converted and cleans up after an interrupted run.
+ * - `--cache` serves repeated conversions of the same content from a `ConversionCache` in DIR, bounded to
+ *   `--cache-size` megabytes (default 1024); `--cache-links` hands out hard links instead of copies.
+ * - `--schedule` sets the `ConversionScheduler` policy: `sjf` (smallest estimated cost first, the default), `fair`
+ *   (weighted fair queueing by size class) or `fifo` (in the order listed).
+ *
+ * Output:
+ * One JSON object per line on standard output: one per file as it finishes
+ * ({"file", "status" (ok, cached, skipped or failed), "output" or "error", "millis", "etaMillis" for the rest of the
+ * batch}), then one summary line with the batch statistics and one `ConversionMetrics` line ({"metrics": true,
+ * throughput, peak queue depth and active workers, latency percentiles per file and per read/convert/write stage}).
+ * Human-readable messages go to standard error.
+ *
+ * Exit codes: 0 when every file was converted, 1 when some failed, 2 for invalid arguments, 130 when cancelled.
+ *
+ * Cancellation: on SIGINT or SIGTERM the shutdown hook cancels the batch and then waits (at most
+ * `SHUTDOWN_WAIT_SECONDS`) until the interrupted files, the summary and the metrics are printed and the journal is
+ * closed, so a cancelled run keeps the same output contract, with "cancelled": true and its "unfinished" count.
+ */
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class BatchConverter {
+
+    public static final int EXIT_OK = 0;
+    public static final int EXIT_FAILURES = 1;
+    public static final int EXIT_USAGE = 2;
+    public static final int EXIT_CANCELLED = 130;
+
+    private static final long DEFAULT_CACHE_MEGABYTES = 1024;
+    // Longest time the shutdown hook keeps the JVM alive for a cancelled batch to report
+    private static final long SHUTDOWN_WAIT_SECONDS = 10;
+
+    public static void main(String[] args) {
+        System.exit(run(args, System.out, System.err));
+    }
+
+    // Runs the command line and returns the exit code
+    public static int run(String[] args, PrintStream out, PrintStream err) {
+        String source = null;
+        String conversionType = null;
+        int concurrency = 0;
+        ConversionExecutors.Mode mode = ConversionExecutors.Mode.PLATFORM;
+        Path journalPath = null;
+        Path cacheDirectory = null;
+        long cacheMegabytes = DEFAULT_CACHE_MEGABYTES;
+        boolean cacheLinks = false;
+        ConversionScheduler.Policy policy = ConversionScheduler.Policy.SHORTEST_JOB_FIRST;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--concurrency":
+                        concurrency = Integer.parseInt(args[++i]);
+                        if (concurrency < 1) {
+                            throw new IllegalArgumentException("--concurrency must be at least 1");
+                        }
+                        break;
+                    case "--virtual":
+                        mode = ConversionExecutors.Mode.VIRTUAL;
+                        break;
+                    case "--journal":
+                        journalPath = Path.of(args[++i]);
+                        break;
+                    case "--cache":
+                        cacheDirectory = Path.of(args[++i]);
+                        break;
+                    case "--cache-size":
+                        cacheMegabytes = Long.parseLong(args[++i]);
+                        break;
+                    case "--cache-links":
+                        cacheLinks = true;
+                        break;
+                    case "--schedule":
+                        policy = ConversionScheduler.Policy.parse(args[++i]);
+                        break;
+                    default:
+                        if (source == null) {
+                            source = args[i];
+                        } else if (conversionType == null) {
+                            conversionType = parseConversionType(args[i]);
+                        } else {
+                            throw new IllegalArgumentException("Unexpected argument: " + args[i]);
+                        }
+                }
+            }
+            if (conversionType == null) {
+                throw new IllegalArgumentException("Missing source or conversion type");
+            }
+        } catch (ArrayIndexOutOfBoundsException | IllegalArgumentException e) {
+            err.println("Error: " + (e instanceof ArrayIndexOutOfBoundsException ? "Missing value for " + args[args.length - 1] : e.getMessage()));
+            err.println("Usage: java BatchConverter <directory | glob> <conversion type> [--concurrency N] [--virtual] [--journal FILE] [--cache DIR] [--cache-size MB] [--cache-links] [--schedule fifo|sjf|fair]");
+            err.println("Conversion types: " + ConversionEngine.CONVERSION_TYPES);
+            return EXIT_USAGE;
+        }
+
+        List<File> files;
+        try {
+            files = listFiles(source);
+        } catch (IOException e) {
+            err.println("Error: cannot list " + source + ": " + e.getMessage());
+            return EXIT_USAGE;
+        }
+        if (files.isEmpty()) {
+            err.println("No files match " + source);
+            return EXIT_OK;
+        }
+
+        ConversionEngine engine = new ConversionEngine();
+        engine.setPolicy(policy);
+        ConversionJournal journal = null;
+        if (journalPath != null) {
+            try {
+                journal = ConversionJournal.open(journalPath);
+            } catch (IOException e) {
+                err.println("Error: cannot open journal " + journalPath + ": " + e.getMessage());
+                return EXIT_USAGE;
+            }
+            if (journal.recoveredPartialOutputs() > 0) {
+                err.println("Removed " + journal.recoveredPartialOutputs() + " partial outputs of an interrupted run");
+            }
+            engine.setJournal(journal);
+        }
+        if (cacheDirectory != null) {
+            try {
+                engine.setCache(ConversionCache.open(cacheDirectory, cacheMegabytes << 20, cacheLinks));
+            } catch (IOException e) {
+                err.println("Error: cannot open cache " + cacheDirectory + ": " + e.getMessage());
+                return EXIT_USAGE;
+            }
+        }
+        // The JVM halts once the hook returns, so it waits for run() to print everything and close the journal
+        CountDownLatch reported = new CountDownLatch(1);
+        Thread cancelOnExit = new Thread(() -> {
+            engine.cancel();
+            try {
+                reported.await(SHUTDOWN_WAIT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        Runtime.getRuntime().addShutdownHook(cancelOnExit);
+
+        ConversionProgress progress = new ConversionProgress(files.size());
+        ConversionEngine.Listener listener = new ConversionEngine.Listener() {
+            @Override
+            public void onMessage(String message) {
+                err.println(message);
+            }
+
+            @Override
+            public void onFinished(ConversionEngine.FileResult result) {
+                synchronized (out) {
+                    out.println(toJson(result, progress.remainingNanos()));
+                }
+            }
+        };
+        ConversionEngine.BatchResult batch;
+        try {
+            batch = engine.run(files, conversionType, mode, concurrency, progress, listener);
+            out.println(summaryJson(batch, conversionType, policy, engine.getCache()));
+            out.println(engine.getMetrics().toJson());
+            out.flush();
+            if (journal != null) {
+                try {
+                    journal.close();
+                } catch (IOException e) {
+                    err.println("Error closing journal: " + e.getMessage());
+                }
+            }
+        } finally {
+            reported.countDown();
+        }
+
+        try {
+            Runtime.getRuntime().removeShutdownHook(cancelOnExit);
+        } catch (IllegalStateException e) {
+            // Already shutting down
+        }
+        if (batch.cancelled) {
+            return EXIT_CANCELLED;
+        }
+        return batch.failed() > 0 ? EXIT_FAILURES : EXIT_OK;
+    }
+
+    // Matches a conversion type by name, ignoring case and allowing dashes for spaces
+    static String parseConversionType(String name) {
+        String normalized = name.trim().replace('-', ' ').toLowerCase(Locale.ROOT);
+        for (String type : ConversionEngine.CONVERSION_TYPES) {
+            if (type.toLowerCase(Locale.ROOT).equals(normalized)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown conversion type: " + name);
+    }
+
+    // Regular files in a directory, or the files of a directory matching a glob in the last path element
+    static List<File> listFiles(String source) throws IOException {
+        Path path = Path.of(source);
+        Path directory;
+        String glob;
+        if (Files.isDirectory(path)) {
+            directory = path;
+            glob = "*";
+        } else {
+            directory = path.getParent() == null ? Path.of(".") : path.getParent();
+            glob = path.getFileName().toString();
+        }
+        List<File> files = new ArrayList<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory, glob)) {
+            for (Path entry : entries) {
+                if (Files.isRegularFile(entry)) {
+                    files.add(entry.toFile());
+                }
+            }
+        }
+        files.sort(null);
+        return files;
+    }
+
+    private static String toJson(ConversionEngine.FileResult result, long remainingNanos) {
+        StringBuilder json = new StringBuilder("{\"file\":").append(quote(result.file.getPath()));
+        if (result.isSuccess()) {
+            json.append(",\"status\":\"").append(result.skipped ? "skipped" : result.cached ? "cached" : "ok").append("\",\"output\":")
+                    .append(quote(result.output.getPath()));
+        } else {
+            json.append(",\"status\":\"failed\",\"error\":").append(quote(result.error));
+        }
+        json.append(",\"millis\":").append(String.format(Locale.ROOT, "%.3f", result.nanos / 1e6));
+        json.append(",\"etaMillis\":").append(remainingNanos / 1_000_000);
+        return json.append('}').toString();
+    }
+
+    private static String summaryJson(ConversionEngine.BatchResult batch, String conversionType,
+                                      ConversionScheduler.Policy policy, ConversionCache cache) {
+        double seconds = batch.nanos / 1e9;
+        long totalNanos = 0;
+        long maxNanos = 0;
+        for (ConversionEngine.FileResult result : batch.results) {
+            totalNanos += result.nanos;
+            maxNanos = Math.max(maxNanos, result.nanos);
+        }
+        StringBuilder json = new StringBuilder(String.format(Locale.ROOT,
+                "{\"summary\":true,\"conversion\":%s,\"schedule\":\"%s\",\"files\":%d,\"converted\":%d,\"cached\":%d,\"skipped\":%d,"
+                        + "\"failed\":%d,\"unfinished\":%d,\"cancelled\":%b,\"wallMillis\":%.3f,\"filesPerSecond\":%.3f,"
+                        + "\"meanMillis\":%.3f,\"maxMillis\":%.3f",
+                quote(conversionType), policy.shortName(), batch.fileCount, batch.succeeded() - batch.skipped() - batch.cached(),
+                batch.cached(), batch.skipped(), batch.failed(), batch.fileCount - batch.results.size(), batch.cancelled,
+                seconds * 1000, seconds > 0 ? batch.results.size() / seconds : 0.0,
+                batch.results.isEmpty() ? 0.0 : totalNanos / 1e6 / batch.results.size(), maxNanos / 1e6));
+        if (cache != null) {
+            json.append(String.format(Locale.ROOT, ",\"cacheHits\":%d,\"cacheMisses\":%d,\"cacheEvictions\":%d,\"cacheBytes\":%d",
+                    cache.hits(), cache.misses(), cache.evictions(), cache.totalBytes()));
+        }
+        return json.append('}').toString();
+    }
+
+    // JSON string literal with the characters that need escaping
+    private static String quote(String text) {
+        StringBuilder quoted = new StringBuilder("\"");
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"':
+                    quoted.append("\\\"");
+                    break;
+                case '\\':
+                    quoted.append("\\\\");
+                    break;
+                case '\n':
+                    quoted.append("\\n");
+                    break;
+                case '\r':
+                    quoted.append("\\r");
+                    break;
+                case '\t':
+                    quoted.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        quoted.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        quoted.append(c);
+                    }
+            }
+        }
+        return quoted.append('"').toString();
+    }
+}
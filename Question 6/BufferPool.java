@@ -0,0 +1,63 @@
+/**
+ * BufferPool hands out a fixed set of direct ByteBuffers for file I/O, so the memory used for reading and writing
+ * files stays constant however many files are converted and however large they are.
+ *
+ * How it works:
+ * - All buffers are allocated once, outside the Java heap, so the operating system can read into them without an
+ *   extra copy and the garbage collector never has to move them.
+ * - `acquire` takes a free buffer, waiting if every buffer is in use; `release` clears it and puts it back. The wait
+ *   is interruptible, so cancelling a conversion also frees a thread waiting for a buffer.
+ *
+ * Time Complexity:
+ * O(1) per acquire and release.
+ */
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+public final class BufferPool {
+
+    // Default buffer size: large enough for sequential disk throughput, small enough to keep many in flight
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+
+    private static final BufferPool SHARED = new BufferPool(2 * Runtime.getRuntime().availableProcessors(), DEFAULT_BUFFER_SIZE);
+
+    private final BlockingQueue<ByteBuffer> free;
+    private final int bufferSize;
+
+    public BufferPool(int buffers, int bufferSize) {
+        if (buffers < 1 || bufferSize < 1) {
+            throw new IllegalArgumentException("Pool needs at least one buffer of at least one byte");
+        }
+        this.bufferSize = bufferSize;
+        this.free = new ArrayBlockingQueue<>(buffers);
+        for (int i = 0; i < buffers; i++) {
+            free.add(ByteBuffer.allocateDirect(bufferSize));
+        }
+    }
+
+    // Pool shared by all conversions in this JVM
+    public static BufferPool shared() {
+        return SHARED;
+    }
+
+    // Takes a cleared buffer, waiting until one is free
+    public ByteBuffer acquire() throws InterruptedException {
+        return free.take();
+    }
+
+    // Returns a buffer obtained from acquire
+    public void release(ByteBuffer buffer) {
+        buffer.clear();
+        free.add(buffer);
+    }
+
+    public int bufferSize() {
+        return bufferSize;
+    }
+
+    // Total bytes held by the pool, in use or not
+    public long capacityBytes() {
+        return (long) bufferSize * (free.size() + free.remainingCapacity());
+    }
+}
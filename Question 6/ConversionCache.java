@@ -0,0 +1,222 @@
+/**
+ * ConversionCache keeps the outputs of earlier conversions in a local directory, keyed by the content of the input,
+ * the conversion type and its parameters, so converting the same file again is just a copy.
+ *
+ * How it works:
+ * 1. The cache key is the SHA-256 of (input content hash, conversion type, parameters), so renamed or moved copies
+ *    of a file still hit, and a change of target size does not.
+ * 2. Entries are files named by their key. An in-memory LinkedHashMap in access order tracks their sizes, so the
+ *    least recently used entries are evicted once the total size exceeds the limit. On startup the order is
+ *    rebuilt from the files' modification times, which a hit refreshes.
+ * 3. On a hit the entry is copied to the output path with `FileChannel.transferTo`, which lets the operating system
+ *    copy without passing the data through the Java heap. Optionally the output is a hard link to the entry instead,
+ *    which costs no copy at all but shares the bytes with the cache (the output must then not be edited in place).
+ * 4. New outputs are copied into a temporary file and moved into place atomically, so a crash never leaves a
+ *    truncated entry.
+ *
+ * Time Complexity:
+ * O(1) bookkeeping per lookup or store (plus O(evicted entries)); the copy is O(output size) in the kernel.
+ */
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+public final class ConversionCache {
+
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+
+    private final Path directory;
+    private final long maxBytes;
+    private final boolean hardLinks;
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true); // key -> size, LRU first
+    private long totalBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder bytesServed = new LongAdder();
+
+    private ConversionCache(Path directory, long maxBytes, boolean hardLinks) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.hardLinks = hardLinks;
+    }
+
+    // Opens (or creates) a cache directory holding at most maxBytes of outputs
+    public static ConversionCache open(Path directory, long maxBytes, boolean hardLinks) throws IOException {
+        ConversionCache cache = new ConversionCache(directory, maxBytes, hardLinks);
+        Files.createDirectories(directory);
+
+        // Rebuild the LRU order from modification times; leftovers of interrupted stores are removed
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path file : stream) {
+                if (file.getFileName().toString().endsWith(TEMPORARY_SUFFIX)) {
+                    Files.deleteIfExists(file);
+                } else if (Files.isRegularFile(file)) {
+                    files.add(file);
+                }
+            }
+        }
+        Map<Path, FileTime> times = new HashMap<>();
+        for (Path file : files) {
+            times.put(file, Files.getLastModifiedTime(file));
+        }
+        files.sort(Comparator.comparing(times::get));
+        synchronized (cache) {
+            for (Path file : files) {
+                long size = Files.size(file);
+                cache.entries.put(file.getFileName().toString(), size);
+                cache.totalBytes += size;
+            }
+            cache.evict();
+        }
+        return cache;
+    }
+
+    // Cache key of converting content with the given hash with this conversion type and parameters
+    public String key(String contentHash, String conversionType, String parameters) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required by every Java platform", e);
+        }
+        digest.update((contentHash + '\0' + conversionType + '\0' + parameters).getBytes(StandardCharsets.UTF_8));
+        StringBuilder hex = new StringBuilder(64);
+        for (byte b : digest.digest()) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    // Writes the cached output for the key to output and returns true, or returns false on a miss
+    public boolean fetch(String key, File output) {
+        Path entry = directory.resolve(key);
+        synchronized (this) {
+            if (entries.get(key) == null) { // get() also moves the entry to the most recently used end
+                misses.increment();
+                return false;
+            }
+        }
+        try {
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+            long bytes = hardLinks ? link(entry, output.toPath()) : copy(entry, output.toPath());
+            hits.increment();
+            bytesServed.add(bytes);
+            return true;
+        } catch (IOException e) {
+            // Evicted or damaged in the meantime: forget it and convert again
+            synchronized (this) {
+                Long size = entries.remove(key);
+                if (size != null) {
+                    totalBytes -= size;
+                }
+            }
+            misses.increment();
+            return false;
+        }
+    }
+
+    // Adds a freshly converted output under the key, evicting least recently used entries if needed
+    public void store(String key, File output) throws IOException {
+        long size = output.length();
+        if (size > maxBytes) {
+            return; // Would evict everything and still not fit
+        }
+        Path temporary = Files.createTempFile(directory, key, TEMPORARY_SUFFIX);
+        try {
+            copy(output.toPath(), temporary);
+            synchronized (this) {
+                Files.move(temporary, directory.resolve(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                Long previous = entries.put(key, size);
+                totalBytes += size - (previous == null ? 0 : previous);
+                evict();
+            }
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    // Removes least recently used entries until the cache fits its limit
+    private void evict() throws IOException {
+        Iterator<Map.Entry<String, Long>> oldest = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && oldest.hasNext()) {
+            Map.Entry<String, Long> entry = oldest.next();
+            Files.deleteIfExists(directory.resolve(entry.getKey()));
+            totalBytes -= entry.getValue();
+            oldest.remove();
+            evictions.increment();
+        }
+    }
+
+    // Copies source to target through the kernel with transferTo; returns the number of bytes copied
+    private static long copy(Path source, Path target) throws IOException {
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            long size = in.size();
+            long position = 0;
+            while (position < size) {
+                position += in.transferTo(position, size - position, out);
+            }
+            return size;
+        }
+    }
+
+    // Makes target a hard link to the entry, falling back to a copy across file systems
+    private static long link(Path entry, Path target) throws IOException {
+        Files.deleteIfExists(target);
+        try {
+            Files.createLink(target, entry);
+            return Files.size(entry);
+        } catch (UnsupportedOperationException | IOException e) {
+            return copy(entry, target);
+        }
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    public long bytesServed() {
+        return bytesServed.sum();
+    }
+
+    public synchronized long totalBytes() {
+        return totalBytes;
+    }
+
+    // One-line summary for the status area
+    public String describe() {
+        long lookups = hits() + misses();
+        return String.format("Cache: %d hits, %d misses (%.0f%% hit rate), %d evictions, %.1f MB served, %.1f of %.1f MB used",
+                hits(), misses(), lookups == 0 ? 0.0 : 100.0 * hits() / lookups, evictions(),
+                bytesServed() / 1e6, totalBytes() / 1e6, maxBytes / 1e6);
+    }
+}
@@ -0,0 +1,73 @@
+/**
+ * ConversionExecutors creates the ExecutorService that runs file conversions, either as a bounded pool of platform
+ * threads or with one virtual thread per file.
+ *
+ * Modes:
+ * - PLATFORM: a fixed pool, sized by the caller from the CPU and I/O budgets. Files beyond the pool size wait in
+ *   the executor's queue.
+ * - VIRTUAL: `Executors.newVirtualThreadPerTaskExecutor()`, so a blocked conversion costs a few kilobytes instead
+ *   of a whole platform thread and tens of thousands of files can be in flight at once. The factory is looked up
+ *   by reflection, so the application still compiles and runs on JDKs without virtual threads, where this mode
+ *   falls back to the platform pool.
+ *
+ * In both modes `shutdownNow` interrupts the running conversions, so cancellation works the same way. Stages that
+ * need real CPU time are limited separately with a Semaphore by the caller, because virtual threads do not add cores.
+ */
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public final class ConversionExecutors {
+
+    public enum Mode {
+        PLATFORM("Platform threads"),
+        VIRTUAL("Virtual threads");
+
+        private final String label;
+
+        Mode(String label) {
+            this.label = label;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor, or null when the running JDK has no virtual threads
+    private static final Method VIRTUAL_FACTORY = findVirtualFactory();
+
+    private ConversionExecutors() {
+    }
+
+    private static Method findVirtualFactory() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    // True if the running JDK supports virtual threads
+    public static boolean virtualThreadsAvailable() {
+        return VIRTUAL_FACTORY != null;
+    }
+
+    // Mode that will actually be used for the requested one
+    public static Mode effectiveMode(Mode requested) {
+        return requested == Mode.VIRTUAL && virtualThreadsAvailable() ? Mode.VIRTUAL : Mode.PLATFORM;
+    }
+
+    // Creates an executor in the given mode; platformThreads sizes the pool used by PLATFORM (and the fallback)
+    public static ExecutorService create(Mode mode, int platformThreads) {
+        if (effectiveMode(mode) == Mode.VIRTUAL) {
+            try {
+                return (ExecutorService) VIRTUAL_FACTORY.invoke(null);
+            } catch (ReflectiveOperationException e) {
+                // Fall through to the platform pool
+            }
+        }
+        return Executors.newFixedThreadPool(Math.max(1, platformThreads));
+    }
+}
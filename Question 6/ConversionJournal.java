@@ -0,0 +1,257 @@
+/**
+ * ConversionJournal records the state of every file conversion in an append-only file, so an interrupted or
+ * crashed batch can be run again and only converts what is left.
+ *
+ * Journal format:
+ * One line per state change: STATE, conversion type, input size, input modification time, SHA-256 of the input,
+ * whether the output existed before the conversion, input path and output path, separated by tabs. STATE is
+ * STARTED, DONE or FAILED, and the last line for an (input, conversion type) pair wins. A line cut short by a crash
+ * does not parse and is ignored.
+ *
+ * How it works:
+ * 1. `open` replays the journal into a hash map keyed by (conversion type, input path).
+ * 2. Pairs still marked STARTED belong to a run that died mid-conversion: their output is deleted if the
+ *    conversion created it, and they are marked FAILED. The journal is then compacted to one line per pair.
+ * 3. `isCompleted` is a map lookup plus one stat: a DONE entry counts if its output still exists and the input has
+ *    the recorded size and modification time. Only if those differ is the input hashed and compared again.
+ * 4. `begin` appends STARTED with the input's hash before converting; `complete` and `fail` append the outcome.
+ *    A failed or cancelled conversion removes the output it created.
+ *
+ * Every line is flushed to the operating system as it is written, so a crash of the application loses nothing.
+ *
+ * Time Complexity:
+ * O(journal lines) to open, O(1) to check a file whose size and modification time are unchanged, and O(file size)
+ * to hash a file that is converted.
+ */
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public final class ConversionJournal implements AutoCloseable {
+
+    enum State { STARTED, DONE, FAILED }
+
+    // Latest journal line for one (conversion type, input) pair
+    public static final class Record {
+        final State state;
+        final String conversionType;
+        final long size;
+        final long lastModified;
+        final String hash;
+        final boolean outputExisted; // The output was already there before the conversion started
+        final String input;
+        final String output;
+
+        Record(State state, String conversionType, long size, long lastModified, String hash,
+               boolean outputExisted, String input, String output) {
+            this.state = state;
+            this.conversionType = conversionType;
+            this.size = size;
+            this.lastModified = lastModified;
+            this.hash = hash;
+            this.outputExisted = outputExisted;
+            this.input = input;
+            this.output = output;
+        }
+
+        Record withState(State newState) {
+            return new Record(newState, conversionType, size, lastModified, hash, outputExisted, input, output);
+        }
+    }
+
+    // Journals with more than this many lines per live entry are rewritten when opened
+    private static final int COMPACT_RATIO = 2;
+
+    private final Path path;
+    private final Map<String, Record> records = new ConcurrentHashMap<>();
+    private BufferedWriter writer;
+    private int recoveredPartialOutputs;
+
+    private ConversionJournal(Path path) {
+        this.path = path;
+    }
+
+    // Opens (or creates) the journal, cleans up after an interrupted run and compacts it if needed
+    public static ConversionJournal open(Path path) throws IOException {
+        ConversionJournal journal = new ConversionJournal(path);
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        int lines = 0;
+        if (Files.exists(path)) {
+            for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+                Record record = parse(line);
+                if (record != null) {
+                    journal.records.put(key(record.conversionType, record.input), record);
+                    lines++;
+                }
+            }
+        }
+
+        // A STARTED record means the application stopped during that conversion
+        boolean recovered = false;
+        for (Map.Entry<String, Record> entry : journal.records.entrySet()) {
+            Record record = entry.getValue();
+            if (record.state == State.STARTED) {
+                if (journal.removePartialOutput(record)) {
+                    journal.recoveredPartialOutputs++;
+                }
+                entry.setValue(record.withState(State.FAILED));
+                recovered = true;
+            }
+        }
+        if (recovered || lines > COMPACT_RATIO * Math.max(16, journal.records.size())) {
+            journal.compact();
+        }
+        journal.writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        return journal;
+    }
+
+    // Number of partial outputs deleted when the journal was opened
+    public int recoveredPartialOutputs() {
+        return recoveredPartialOutputs;
+    }
+
+    // True if the input was already converted with this conversion type and its output is still there
+    public boolean isCompleted(File input, String conversionType) throws IOException {
+        Record record = records.get(key(conversionType, input.getAbsolutePath()));
+        if (record == null || record.state != State.DONE || !new File(record.output).exists()) {
+            return false;
+        }
+        if (input.length() == record.size && input.lastModified() == record.lastModified) {
+            return true;
+        }
+        // Touched since: only the content counts
+        if (input.length() != record.size || !hash(input.toPath()).equals(record.hash)) {
+            return false;
+        }
+        append(new Record(State.DONE, conversionType, input.length(), input.lastModified(), record.hash,
+                record.outputExisted, record.input, record.output));
+        return true;
+    }
+
+    // Records that a conversion of input (whose content has the given hash) is starting; pass the result to complete or fail
+    public Record begin(File input, String contentHash, String conversionType, File output) throws IOException {
+        Record record = new Record(State.STARTED, conversionType, input.length(), input.lastModified(),
+                contentHash, output.exists(), input.getAbsolutePath(), output.getAbsolutePath());
+        append(record);
+        return record;
+    }
+
+    public void complete(Record started) throws IOException {
+        append(started.withState(State.DONE));
+    }
+
+    // Records a failed or cancelled conversion and deletes the output it created
+    public void fail(Record started) throws IOException {
+        removePartialOutput(started);
+        append(started.withState(State.FAILED));
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+
+    // Deletes the output of an unfinished conversion, unless it existed before or is the input itself
+    private boolean removePartialOutput(Record record) throws IOException {
+        if (record.outputExisted || record.output.equals(record.input)) {
+            return false;
+        }
+        return Files.deleteIfExists(Path.of(record.output));
+    }
+
+    private synchronized void append(Record record) throws IOException {
+        records.put(key(record.conversionType, record.input), record);
+        writer.write(format(record));
+        writer.newLine();
+        writer.flush();
+    }
+
+    // Rewrites the journal with only the latest record of every pair, replacing the old file atomically
+    private void compact() throws IOException {
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (BufferedWriter out = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+            for (Record record : records.values()) {
+                out.write(format(record));
+                out.newLine();
+            }
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static String key(String conversionType, String input) {
+        return conversionType + '\0' + input;
+    }
+
+    private static String format(Record record) {
+        return String.join("\t", record.state.name(), escape(record.conversionType), Long.toString(record.size),
+                Long.toString(record.lastModified), record.hash, record.outputExisted ? "1" : "0",
+                escape(record.input), escape(record.output));
+    }
+
+    // Parses one journal line, or returns null for a damaged line
+    private static Record parse(String line) {
+        String[] fields = line.split("\t", -1);
+        if (fields.length != 8) {
+            return null;
+        }
+        try {
+            return new Record(State.valueOf(fields[0]), unescape(fields[1]), Long.parseLong(fields[2]),
+                    Long.parseLong(fields[3]), fields[4], fields[5].equals("1"), unescape(fields[6]), unescape(fields[7]));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    // Keeps tabs and line breaks in paths from breaking the line format
+    private static String escape(String text) {
+        return text.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n").replace("\r", "\\r");
+    }
+
+    private static String unescape(String text) {
+        StringBuilder result = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\\' && i + 1 < text.length()) {
+                char next = text.charAt(++i);
+                result.append(next == 't' ? '\t' : next == 'n' ? '\n' : next == 'r' ? '\r' : next);
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+
+    // SHA-256 of the file content as hex, read in pooled chunks by StreamingFileIO
+    static String hash(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required by every Java platform", e);
+        }
+        try {
+            StreamingFileIO.shared().forEachChunk(file, digest::update);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Hashing of " + file.getFileName() + " cancelled");
+        }
+        StringBuilder hex = new StringBuilder(64);
+        for (byte b : digest.digest()) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+}
@@ -0,0 +1,163 @@
+/**
+ * ConversionMetrics collects the throughput and latency of a conversion batch while it runs, so the concurrency
+ * settings can be tuned from numbers instead of guesses.
+ *
+ * What is measured:
+ * - Per-file latency and the time spent in each stage: read (hashing and decoding the input), convert (the
+ *   conversion itself) and write (streaming and encoding the output, copies to and from the cache), each in a
+ *   lock-free `LatencyHistogram`. Every step is one recording, so hashing and decoding the same file count as two
+ *   reads. PDF conversions decode nothing: they stream the input to the output in one pass, which is recorded as
+ *   a write, so their only read is the content hash, and none without a journal or cache.
+ * - Queue depth (files submitted but still waiting for a worker) and active workers, with their peaks.
+ * - Files finished, converted or not, and the input bytes of the converted ones, from which files and bytes per
+ *   second follow.
+ *
+ * Every counter is a LongAdder, an atomic or a histogram, so recording from the workers never blocks them; the UI
+ * reads a consistent-enough view at its own pace, and `toJson` dumps everything at the end of a run.
+ *
+ * Time Complexity:
+ * O(1) per recording; a snapshot costs O(histogram buckets).
+ */
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+public final class ConversionMetrics {
+
+    public enum Stage { READ, CONVERT, WRITE }
+
+    private final long startNanos = System.nanoTime();
+    private final int workers;
+    private final LatencyHistogram fileLatency = new LatencyHistogram();
+    private final Map<Stage, LatencyHistogram> stageLatency = new EnumMap<>(Stage.class);
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final AtomicInteger activeWorkers = new AtomicInteger();
+    private final AtomicInteger maxQueueDepth = new AtomicInteger();
+    private final AtomicInteger maxActiveWorkers = new AtomicInteger();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder files = new LongAdder();
+    private volatile long endNanos;
+
+    public ConversionMetrics(int workers) {
+        this.workers = workers;
+        for (Stage stage : Stage.values()) {
+            stageLatency.put(stage, new LatencyHistogram());
+        }
+    }
+
+    // A file was submitted and waits for a worker
+    public void queued() {
+        maxQueueDepth.accumulateAndGet(queueDepth.incrementAndGet(), Math::max);
+    }
+
+    // A queued file got a worker
+    public void started() {
+        queueDepth.decrementAndGet();
+        maxActiveWorkers.accumulateAndGet(activeWorkers.incrementAndGet(), Math::max);
+    }
+
+    // A started file is finished, converted or not; inputBytes is 0 when it failed
+    public void finished(long nanos, long inputBytes) {
+        activeWorkers.decrementAndGet();
+        fileLatency.record(nanos);
+        bytes.add(inputBytes);
+        files.increment();
+    }
+
+    // A started file was skipped without converting it
+    public void skipped() {
+        activeWorkers.decrementAndGet();
+    }
+
+    // Time spent in one stage of one file
+    public void record(Stage stage, long nanos) {
+        stageLatency.get(stage).record(nanos);
+    }
+
+    // Stops the clock used for the rates
+    public void stop() {
+        endNanos = System.nanoTime();
+    }
+
+    public int queueDepth() {
+        return queueDepth.get();
+    }
+
+    public int activeWorkers() {
+        return activeWorkers.get();
+    }
+
+    public int workers() {
+        return workers;
+    }
+
+    public double bytesPerSecond() {
+        double seconds = elapsedNanos() / 1e9;
+        return seconds > 0 ? bytes.sum() / seconds : 0;
+    }
+
+    public double filesPerSecond() {
+        double seconds = elapsedNanos() / 1e9;
+        return seconds > 0 ? files.sum() / seconds : 0;
+    }
+
+    public LatencyHistogram fileLatency() {
+        return fileLatency;
+    }
+
+    public LatencyHistogram stageLatency(Stage stage) {
+        return stageLatency.get(stage);
+    }
+
+    private long elapsedNanos() {
+        long end = endNanos;
+        return (end == 0 ? System.nanoTime() : end) - startNanos;
+    }
+
+    // Short lines for the live panel
+    public String[] describe() {
+        StringBuilder stages = new StringBuilder("Mean stage:");
+        for (Stage stage : Stage.values()) {
+            stages.append(' ').append(stage.name().toLowerCase(Locale.ROOT)).append(' ')
+                    .append(millis(stageLatency.get(stage).mean())).append(" ms");
+        }
+        return new String[]{
+                String.format(Locale.ROOT, "Queue %d, active %d of %d workers, %.2f MB/s, %.2f files/s",
+                        queueDepth(), activeWorkers(), workers, bytesPerSecond() / 1e6, filesPerSecond()),
+                String.format(Locale.ROOT, "Latency p50 %s ms, p95 %s ms, p99 %s ms, max %s ms",
+                        millis(fileLatency.percentile(0.50)), millis(fileLatency.percentile(0.95)),
+                        millis(fileLatency.percentile(0.99)), millis(fileLatency.max())),
+                stages.toString()
+        };
+    }
+
+    // Everything measured, as one JSON object
+    public String toJson() {
+        StringBuilder json = new StringBuilder(String.format(Locale.ROOT,
+                "{\"metrics\":true,\"elapsedMillis\":%s,\"workers\":%d,\"files\":%d,\"bytes\":%d,\"bytesPerSecond\":%.1f,"
+                        + "\"filesPerSecond\":%.3f,\"queueDepth\":%d,\"maxQueueDepth\":%d,\"activeWorkers\":%d,"
+                        + "\"maxActiveWorkers\":%d,\"latency\":",
+                millis(elapsedNanos()), workers, files.sum(), bytes.sum(), bytesPerSecond(), filesPerSecond(),
+                queueDepth(), maxQueueDepth.get(), activeWorkers(), maxActiveWorkers.get()));
+        appendHistogram(json, fileLatency);
+        json.append(",\"stages\":{");
+        for (Stage stage : Stage.values()) {
+            json.append(stage.ordinal() == 0 ? "" : ",").append('"').append(stage.name().toLowerCase(Locale.ROOT)).append("\":");
+            appendHistogram(json, stageLatency.get(stage));
+        }
+        return json.append("}}").toString();
+    }
+
+    private static void appendHistogram(StringBuilder json, LatencyHistogram histogram) {
+        json.append(String.format(Locale.ROOT,
+                "{\"count\":%d,\"meanMillis\":%s,\"p50Millis\":%s,\"p95Millis\":%s,\"p99Millis\":%s,\"maxMillis\":%s}",
+                histogram.count(), millis(histogram.mean()), millis(histogram.percentile(0.50)),
+                millis(histogram.percentile(0.95)), millis(histogram.percentile(0.99)), millis(histogram.max())));
+    }
+
+    private static String millis(double nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1e6);
+    }
+}
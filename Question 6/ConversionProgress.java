@@ -0,0 +1,120 @@
+/**
+ * ConversionProgress tracks the progress of every file in a batch and the overall progress, so that a progress
+ * tick costs O(1) however many files are being converted.
+ *
+ * How it works:
+ * - Each file has a slot (its index in the batch) holding its last reported percentage.
+ * - A tick swaps the new percentage into the slot and adds the difference to a LongAdder total, so concurrent
+ *   workers never contend on a single counter and the whole map is never summed again.
+ * - Overall progress is total / fileCount, read by the UI at its own pace instead of after every tick.
+ * - With the cost estimates of the files (see `ConversionScheduler`), every tick also adds its share of the file's
+ *   estimated cost to a second LongAdder. The time remaining is the remaining estimated work at the rate measured
+ *   so far, or the estimate spread over the workers before any work is measured. Files that were skipped or served
+ *   from the cache are taken out of the work, so they do not make the rate look faster than it is.
+ *
+ * Time Complexity:
+ * O(1) per update; reading the overall progress costs O(number of LongAdder cells), at most the number of cores.
+ */
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+public class ConversionProgress {
+
+    private final AtomicIntegerArray filePercent; // Last reported percentage of every file
+    private final LongAdder totalPercent = new LongAdder();
+    private final LongAdder completedFiles = new LongAdder();
+    private final int fileCount;
+    // Estimated cost of every file, and the work done and total in cost units times percent
+    private volatile long[] estimatedNanos;
+    private final LongAdder doneWork = new LongAdder();
+    private final LongAdder totalWork = new LongAdder();
+    private volatile long startNanos;
+    private volatile int workers = 1;
+
+    public ConversionProgress(int fileCount) {
+        this.fileCount = fileCount;
+        this.filePercent = new AtomicIntegerArray(fileCount);
+    }
+
+    // Records the progress (0 to 100) of the file with the given index
+    public void update(int file, int percent) {
+        int previous = filePercent.getAndSet(file, percent);
+        totalPercent.add(percent - previous);
+        long[] costs = estimatedNanos;
+        if (costs != null) {
+            doneWork.add(costs[file] * (percent - previous));
+        }
+    }
+
+    // Starts the clock for the time remaining, with the estimated cost of every file and the number of workers
+    public void start(long[] estimatedNanos, int workers) {
+        long total = 0;
+        for (long cost : estimatedNanos) {
+            total += cost * 100;
+        }
+        totalWork.add(total);
+        this.workers = Math.max(1, workers);
+        this.startNanos = System.nanoTime();
+        this.estimatedNanos = estimatedNanos;
+    }
+
+    // Marks a file as finished, successfully or not
+    public void complete(int file) {
+        update(file, 100);
+        completedFiles.increment();
+    }
+
+    // Marks a file as finished without converting it (skipped or served from the cache)
+    public void completeWithoutWork(int file) {
+        int previous = filePercent.getAndSet(file, 100);
+        totalPercent.add(100 - previous);
+        long[] costs = estimatedNanos;
+        if (costs != null) {
+            doneWork.add(-costs[file] * previous);
+            totalWork.add(-costs[file] * 100);
+        }
+        completedFiles.increment();
+    }
+
+    // Estimated time until the batch is done, or -1 before start
+    public long remainingNanos() {
+        if (estimatedNanos == null) {
+            return -1;
+        }
+        long total = totalWork.sum();
+        long done = doneWork.sum();
+        if (done >= total) {
+            return 0;
+        }
+        if (done <= 0) {
+            return (total - done) / 100 / workers;
+        }
+        long elapsed = System.nanoTime() - startNanos;
+        return (long) ((double) elapsed * (total - done) / done);
+    }
+
+    // Time remaining as h:mm:ss or m:ss, or an empty string while it is unknown
+    public String remainingText() {
+        long nanos = remainingNanos();
+        if (nanos < 0) {
+            return "";
+        }
+        long seconds = (nanos + 999_999_999L) / 1_000_000_000L;
+        return seconds >= 3600
+                ? String.format("%d:%02d:%02d", seconds / 3600, seconds / 60 % 60, seconds % 60)
+                : String.format("%d:%02d", seconds / 60, seconds % 60);
+    }
+
+    // Overall progress of the batch, 0 to 100
+    public int overallPercent() {
+        return fileCount == 0 ? 100 : (int) (totalPercent.sum() / fileCount);
+    }
+
+    public int completedFiles() {
+        return completedFiles.intValue();
+    }
+
+    public int fileCount() {
+        return fileCount;
+    }
+}
@@ -8,7 +8,8 @@
  * - Choose conversion type from a dropdown (e.g., PDF to Docx, Image Resize)
  * - Display conversion progress using a JProgressBar
  * - Display conversion status and messages in a JTextArea
- * - Cancel ongoing conversions
+ * - Cancel ongoing conversions; Start and Select Files stay disabled until the running batch has returned, so
+ *   the engine only ever runs one batch at a time
  * - Open the converted files using the default system application
  *
  * Key Components:
@@ -17,7 +18,17 @@
  * - JTextArea: For displaying status messages
  * - JButton: For triggering file selection, starting conversion, and cancelling conversion
  * - JComboBox: For selecting the conversion type
- * - ExecutorService: For managing concurrent file conversion tasks
+ * - ConversionEngine: The headless conversion pipeline (parallel executor, CPU limiter, per-file results); this
+ *   window is a thin client over it, like the command-line `BatchConverter`
+ * - ConversionExecutors: For choosing between a platform thread pool and one virtual thread per file
+ * - ConversionJournal: For resuming an interrupted batch; already converted files are skipped on the next run
+ * - ConversionCache: For serving repeated conversions of the same content from a size-bounded LRU cache
+ * - ConversionScheduler: For converting small files first (or fairly by size) and estimating the time remaining
+ * - ConversionProgress: For O(1) per-file and overall progress updates from the worker threads
+ * - ConversionMetrics: For the live metrics panel (queue depth, active workers, throughput, latency percentiles per
+ *   file and stage); every batch also dumps its metrics as JSON next to the journal
+ * - StatusLog: For keeping the status messages in a bounded ring buffer, optionally spilled to a file
+ * - Swing Timer: For refreshing the progress bar and status area at a fixed frame rate instead of on every tick
  * - SwingWorker: For executing conversion tasks in the background and updating the GUI asynchronously
  */
 import javax.swing.*;
@@ -26,30 +37,93 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.List;
-import java.util.concurrent.*;
+import java.util.concurrent.ExecutionException;
 
 public class FileConversionApp extends JFrame {
 
+    // Status lines kept on screen; older ones are dropped (or only kept in the spill file)
+    private static final int STATUS_LOG_CAPACITY = 500;
+    // System property naming a file that receives every status line
+    private static final String STATUS_SPILL_PROPERTY = "fileconversion.statusLog";
+    // Journal of finished conversions, kept in the user's home directory across runs
+    private static final Path JOURNAL_FILE = Path.of(System.getProperty("user.home"), ".file-conversion", "journal.log");
+    // Cache of converted outputs and its size limit
+    private static final Path CACHE_DIRECTORY = Path.of(System.getProperty("user.home"), ".file-conversion", "cache");
+    private static final long CACHE_MAX_BYTES = 1L << 30;
+    // Metrics of every batch, one JSON file per run
+    private static final Path METRICS_DIRECTORY = Path.of(System.getProperty("user.home"), ".file-conversion", "metrics");
+    // How often the progress bar and status area are refreshed
+    private static final int REFRESH_FRAMES_PER_SECOND = 20;
+
     private JFileChooser fileChooser;
     private JProgressBar progressBar;
+    private JLabel[] metricsLabels;
     private JTextArea statusArea;
     private JButton selectFilesButton;
     private JButton startButton;
     private JButton cancelButton;
     private JComboBox<String> conversionOptions;
+    private JComboBox<ConversionExecutors.Mode> executorOptions;
+    private JComboBox<ConversionScheduler.Policy> scheduleOptions;
     private List<File> selectedFiles;
-    private ExecutorService executorService;
-    private SwingWorker<Void, String> conversionWorker;
+    private SwingWorker<ConversionEngine.BatchResult, Void> conversionWorker;
+    private final ConversionEngine engine = new ConversionEngine();
+    private StatusLog statusLog;
+    private long shownStatusVersion = -1;        // Status log version currently shown in the status area
+    private volatile ConversionProgress progress; // Progress of the running batch, or null before the first one
+    private Timer refreshTimer;
 
     public FileConversionApp() {
         setTitle("File Conversion Application");
-        setSize(600, 400);
+        setSize(700, 480);
         setDefaultCloseOperation(EXIT_ON_CLOSE);
         setLocationRelativeTo(null);
+        initStatusLog();
+        initJournal();
+        initCache();
         initUI();
     }
 
+    private void initCache() {
+        try {
+            engine.setCache(ConversionCache.open(CACHE_DIRECTORY, CACHE_MAX_BYTES, false));
+        } catch (IOException e) {
+            statusLog.append("Conversion cache unavailable: " + e.getMessage());
+        }
+    }
+
+    private void initJournal() {
+        try {
+            ConversionJournal journal = ConversionJournal.open(JOURNAL_FILE);
+            engine.setJournal(journal);
+            if (journal.recoveredPartialOutputs() > 0) {
+                statusLog.append("Removed " + journal.recoveredPartialOutputs() + " partial outputs of an interrupted run.");
+            }
+        } catch (IOException e) {
+            statusLog.append("Conversion journal unavailable, finished files will be converted again: " + e.getMessage());
+        }
+    }
+
+    private void initStatusLog() {
+        String spillFile = System.getProperty(STATUS_SPILL_PROPERTY);
+        try {
+            statusLog = new StatusLog(STATUS_LOG_CAPACITY, spillFile == null ? null : Path.of(spillFile));
+        } catch (IOException e) {
+            try {
+                statusLog = new StatusLog(STATUS_LOG_CAPACITY, null);
+            } catch (IOException impossible) {
+                throw new IllegalStateException(impossible);
+            }
+            statusLog.append("Cannot write status log to " + spillFile + ": " + e.getMessage());
+        }
+    }
+
     private void initUI() {
         JPanel panel = new JPanel(new BorderLayout());
         JPanel topPanel = new JPanel(new FlowLayout());
@@ -68,7 +142,10 @@ public class FileConversionApp extends JFrame {
         cancelButton = new JButton("Cancel Conversion");
         cancelButton.addActionListener(new CancelButtonListener());
 
-        conversionOptions = new JComboBox<>(new String[]{"PDF to Docx", "Image Resize"});
+        conversionOptions = new JComboBox<>(ConversionEngine.CONVERSION_TYPES.toArray(new String[0]));
+        executorOptions = new JComboBox<>(ConversionExecutors.Mode.values());
+        scheduleOptions = new JComboBox<>(ConversionScheduler.Policy.values());
+        scheduleOptions.setSelectedItem(engine.getPolicy());
 
         progressBar = new JProgressBar();
         progressBar.setStringPainted(true);
@@ -79,17 +156,55 @@ public class FileConversionApp extends JFrame {
 
         topPanel.add(new JLabel("Select Conversion Type:"));
         topPanel.add(conversionOptions);
+        topPanel.add(executorOptions);
+        topPanel.add(scheduleOptions);
         topPanel.add(selectFilesButton);
         topPanel.add(startButton);
         topPanel.add(cancelButton);
 
         bottomPanel.add(progressBar);
 
+        // Live metrics of the running batch, one line per label
+        JPanel metricsPanel = new JPanel(new GridLayout(0, 1));
+        metricsPanel.setBorder(BorderFactory.createTitledBorder("Metrics"));
+        metricsLabels = new JLabel[3];
+        for (int i = 0; i < metricsLabels.length; i++) {
+            metricsLabels[i] = new JLabel(" ");
+            metricsPanel.add(metricsLabels[i]);
+        }
+        JPanel southPanel = new JPanel(new BorderLayout());
+        southPanel.add(bottomPanel, BorderLayout.NORTH);
+        southPanel.add(metricsPanel, BorderLayout.SOUTH);
+
         panel.add(topPanel, BorderLayout.NORTH);
         panel.add(scrollPane, BorderLayout.CENTER);
-        panel.add(bottomPanel, BorderLayout.SOUTH);
+        panel.add(southPanel, BorderLayout.SOUTH);
 
         setContentPane(panel);
+
+        refreshTimer = new Timer(1000 / REFRESH_FRAMES_PER_SECOND, e -> refreshStatus());
+        refreshStatus();
+    }
+
+    // Shows the latest status lines and progress; runs on the EDT at most REFRESH_FRAMES_PER_SECOND times a second
+    private void refreshStatus() {
+        long version = statusLog.version();
+        if (version != shownStatusVersion) {
+            shownStatusVersion = version;
+            statusArea.setText(statusLog.snapshot());
+            statusArea.setCaretPosition(statusArea.getDocument().getLength());
+        }
+        ConversionProgress current = progress;
+        if (current != null) {
+            progressBar.setValue(current.overallPercent());
+            String remaining = current.completedFiles() < current.fileCount() ? current.remainingText() : "";
+            progressBar.setString(current.overallPercent() + "% (" + current.completedFiles() + " of "
+                    + current.fileCount() + " files" + (remaining.isEmpty() ? "" : ", " + remaining + " left") + ")");
+            String[] lines = engine.getMetrics().describe();
+            for (int i = 0; i < metricsLabels.length; i++) {
+                metricsLabels[i].setText(lines[i]);
+            }
+        }
     }
 
     private class SelectFilesButtonListener implements ActionListener {
@@ -98,7 +213,8 @@ public class FileConversionApp extends JFrame {
             if (fileChooser.showOpenDialog(FileConversionApp.this) == JFileChooser.APPROVE_OPTION) {
                 selectedFiles = List.of(fileChooser.getSelectedFiles());
                 startButton.setEnabled(true);
-                statusArea.append("Selected " + selectedFiles.size() + " files for conversion.\n");
+                statusLog.append("Selected " + selectedFiles.size() + " files for conversion.");
+                refreshStatus();
             }
         }
     }
@@ -113,135 +229,96 @@ public class FileConversionApp extends JFrame {
     private class CancelButtonListener implements ActionListener {
         @Override
         public void actionPerformed(ActionEvent e) {
+            // Only the engine is cancelled: the worker then finishes normally once run() has returned, and done()
+            // re-enables the buttons for a batch that is really over
             if (conversionWorker != null) {
-                conversionWorker.cancel(true);
-                if (executorService != null && !executorService.isShutdown()) {
-                    executorService.shutdownNow();
-                }
+                engine.cancel();
             }
         }
     }
 
     private void startConversion() {
-        conversionWorker = new SwingWorker<>() {
-            private final ConcurrentHashMap<File, Integer> fileProgressMap = new ConcurrentHashMap<>();
+        List<File> files = selectedFiles;
+        String conversionType = (String) conversionOptions.getSelectedItem();
+        ConversionExecutors.Mode mode = (ConversionExecutors.Mode) executorOptions.getSelectedItem();
+        engine.setPolicy((ConversionScheduler.Policy) scheduleOptions.getSelectedItem());
+        ConversionProgress batchProgress = new ConversionProgress(files.size());
+        progress = batchProgress;
+
+        // Status messages go to the bounded log; the timer shows them on the EDT
+        ConversionEngine.Listener listener = new ConversionEngine.Listener() {
             @Override
-            protected Void doInBackground() {
-                int fileCount = selectedFiles.size();
-                int progressStep = 100 / fileCount;
-                int progress = 0;
-
-                executorService = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
-
-                for (File file : selectedFiles) {
-                    if (isCancelled()) {
-                        publish("Conversion cancelled.");
-                        break;
-                    }
+            public void onMessage(String message) {
+                statusLog.append(message);
+            }
 
-                    String conversionType = (String) conversionOptions.getSelectedItem();
-                    publish("Starting conversion of " + file.getName() + " to " + conversionType);
-
-                    Future<?> future = executorService.submit(() -> {
-                        try {
-                            File convertedFile = convertFile(file, conversionType);
-                            convertFileWithProgress(file, conversionType);
-                            publish("Converted " + file.getName() + " to " + conversionType);
-                            openFile(convertedFile);
-                        } catch (Exception ex) {
-                            publish("Error converting " + file.getName() + ": " + ex.getMessage());
-                        }
-                    });
-
-                    try {
-                        future.get(); // Wait for the task to complete
-                        progress += progressStep;
-                        setProgress(progress);
-                    } catch (InterruptedException | ExecutionException ex) {
-                        publish("Error during conversion: " + ex.getMessage());
-                    }
-                }
+            @Override
+            public void onStarted(File file) {
+                statusLog.append("Starting conversion of " + file.getName() + " to " + conversionType);
+            }
 
-                executorService.shutdown();
-                try {
-                    executorService.awaitTermination(1, TimeUnit.MINUTES);
-                } catch (InterruptedException ex) {
-                    publish("Conversion interrupted: " + ex.getMessage());
+            @Override
+            public void onFinished(ConversionEngine.FileResult result) {
+                if (result.skipped) {
+                    statusLog.append("Skipped " + result.file.getName() + " (already converted)");
+                } else if (result.cached) {
+                    statusLog.append("Converted " + result.file.getName() + " to " + conversionType + " (from cache)");
+                    openFile(result.output);
+                } else if (result.isSuccess()) {
+                    statusLog.append("Converted " + result.file.getName() + " to " + conversionType);
+                    openFile(result.output);
+                } else {
+                    statusLog.append("Error converting " + result.file.getName() + ": " + result.error);
                 }
-
-                return null;
             }
+        };
 
+        conversionWorker = new SwingWorker<>() {
             @Override
-            protected void process(List<String> chunks) {
-                for (String status : chunks) {
-                    statusArea.append(status + "\n");
-                }
-                updateOverallProgress();
+            protected ConversionEngine.BatchResult doInBackground() {
+                return engine.run(files, conversionType, mode, 0, batchProgress, listener);
             }
 
             @Override
             protected void done() {
+                selectFilesButton.setEnabled(true);
+                startButton.setEnabled(true);
+                ConversionCache cache = engine.getCache();
+                if (cache != null) {
+                    statusLog.append(cache.describe());
+                }
+                saveMetrics(engine.getMetrics());
+                refreshTimer.stop();
+                refreshStatus();
                 try {
-                    get();
-                    JOptionPane.showMessageDialog(FileConversionApp.this, "Conversion completed.", "Info", JOptionPane.INFORMATION_MESSAGE);
+                    if (get().cancelled) {
+                        JOptionPane.showMessageDialog(FileConversionApp.this, "Conversion was cancelled.", "Warning", JOptionPane.WARNING_MESSAGE);
+                    } else {
+                        JOptionPane.showMessageDialog(FileConversionApp.this, "Conversion completed.", "Info", JOptionPane.INFORMATION_MESSAGE);
+                    }
                 } catch (InterruptedException | ExecutionException e) {
                     e.printStackTrace();
-                } catch (CancellationException e) {
-                    JOptionPane.showMessageDialog(FileConversionApp.this, "Conversion was cancelled.", "Warning", JOptionPane.WARNING_MESSAGE);
                 }
             }
-            private void convertFileWithProgress(File file, String conversionType) throws Exception {
-                // Simulate file conversion with sleep and update progress
-                int steps = 10;
-                for (int i = 1; i <= steps; i++) {
-                    if (isCancelled()) {
-                        break;
-                    }
-                    Thread.sleep(100); // Simulate work being done
-                    int progress = (i * 100) / steps;
-                    fileProgressMap.put(file, progress);
-                    publish("Progress of " + file.getName() + ": " + progress + "%");
-                    updateOverallProgress();
-                }
-
-                // Simulate the creation of a converted file
-                String convertedFileName = file.getName().replace(".pdf", ".docx");
-                File convertedFile = new File(file.getParent(), convertedFileName);
-                if (!convertedFile.exists()) {
-                    convertedFile.createNewFile();
-                }
-            }
-            private void updateOverallProgress() {
-                int totalProgress = fileProgressMap.values().stream().mapToInt(Integer::intValue).sum();
-                int overallProgress = totalProgress / selectedFiles.size();
-                setProgress(overallProgress);
-            }
         };
 
-        conversionWorker.addPropertyChangeListener(evt -> {
-            if ("progress".equals(evt.getPropertyName())) {
-                progressBar.setValue((Integer) evt.getNewValue());
-            }
-        });
-
+        // One batch at a time: a second run() on the same engine would replace the running batch's executor and metrics
+        selectFilesButton.setEnabled(false);
+        startButton.setEnabled(false);
+        refreshTimer.start();
         conversionWorker.execute();
     }
 
-    private File convertFile(File file, String conversionType) throws Exception {
-        // Simulate file conversion with sleep
-        Thread.sleep(1000); // Simulate time taken for conversion
-        
-
-        // For the sake of this example, let's assume the converted file has the same name with a different extension
-        String convertedFileName = file.getName().replace(".pdf", ".docx");
-        File convertedFile = new File(file.getParent(), convertedFileName);
-
-        if (!convertedFile.exists()) {
-            convertedFile.createNewFile(); // Just to simulate conversion
+    // Writes the metrics of the finished batch as JSON, for comparing concurrency settings between runs
+    private void saveMetrics(ConversionMetrics metrics) {
+        Path file = METRICS_DIRECTORY.resolve("batch-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json");
+        try {
+            Files.createDirectories(METRICS_DIRECTORY);
+            Files.writeString(file, metrics.toJson() + System.lineSeparator(), StandardCharsets.UTF_8);
+            statusLog.append("Metrics saved to " + file);
+        } catch (IOException e) {
+            statusLog.append("Could not save metrics: " + e.getMessage());
         }
-
-        return convertedFile;
     }
 
     private void openFile(File file) {
@@ -251,7 +328,7 @@ public class FileConversionApp extends JFrame {
                 try {
                     desktop.open(file);
                 } catch (IOException e) {
-                    statusArea.append("Error opening file " + file.getName() + ": " + e.getMessage() + "\n");
+                    statusLog.append("Error opening file " + file.getName() + ": " + e.getMessage());
                 }
             }
         }
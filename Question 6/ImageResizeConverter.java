@@ -0,0 +1,330 @@
+/**
+ * ImageResizeConverter implements the "Image Resize" conversion: it shrinks an image to fit inside a maximum
+ * width and height and writes it in the same format, without ever holding the full-resolution image in memory.
+ *
+ * How it works:
+ * 1. The image header is read first to get the source size, and the target size is computed keeping the aspect
+ *    ratio (images are never enlarged).
+ * 2. The image is decoded once with `ImageReadParam.setSourceSubsampling`, so the reader streams through the
+ *    source rows and only keeps every s-th pixel of every s-th row. s is chosen so the decoded image is still at
+ *    least twice the target size, which leaves enough detail for a smooth final scale.
+ * 3. The final scale runs in parallel: the output is split into bands of rows, and each band is drawn with bilinear
+ *    interpolation into an image of its own, so no two threads ever draw into the same image. The calling thread
+ *    works through the bands itself; helpers handed to the caller's executor join in only if they get a permit of
+ *    the caller's CPU Semaphore, and otherwise return at once. Scaling therefore stays within the same CPU budget
+ *    as every other CPU-heavy stage. Once every band is drawn, the calling thread copies them into the output.
+ * 4. The output image is written directly to the output file with `ImageIO`.
+ *
+ * Memory:
+ * Peak memory is about the subsampled image (at most 4 * (2 * target)^2 pixels' worth) plus twice the output image
+ * (the bands and the output they are copied into), whatever the size of the source.
+ *
+ * Time Complexity:
+ * Decoding is O(source pixels) (the reader still has to parse every row), scaling is O(target pixels) divided over
+ * the worker threads.
+ */
+import javax.imageio.IIOException;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.event.IIOReadProgressListener;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntConsumer;
+
+public class ImageResizeConverter {
+
+    // Rows of the output image scaled by one task
+    private static final int BAND_ROWS = 64;
+    // Share of the progress bar used by decoding; scaling and writing use the rest
+    private static final int DECODE_PROGRESS = 70;
+
+    private final int maxWidth;
+    private final int maxHeight;
+
+    public ImageResizeConverter(int maxWidth, int maxHeight) {
+        if (maxWidth < 1 || maxHeight < 1) {
+            throw new IllegalArgumentException("Target size must be positive: " + maxWidth + "x" + maxHeight);
+        }
+        this.maxWidth = maxWidth;
+        this.maxHeight = maxHeight;
+    }
+
+    // Name of the resized copy of the input, in the same folder
+    public static File outputFileFor(File input) {
+        String name = input.getName();
+        int dot = name.lastIndexOf('.');
+        String resizedName = dot < 0 ? name + "_resized" : name.substring(0, dot) + "_resized" + name.substring(dot);
+        return new File(input.getParent(), resizedName);
+    }
+
+    // Resizes input into output, reporting progress from 0 to 100; returns the output file
+    public File resize(File input, File output, IntConsumer progress) throws IOException {
+        return resize(input, output, progress, null);
+    }
+
+    // Like resize, also recording the time of the decode, scale and encode stages in metrics (if not null)
+    public File resize(File input, File output, IntConsumer progress, ConversionMetrics metrics) throws IOException {
+        return resize(input, output, progress, metrics, null, null);
+    }
+
+    // Like resize, scaling with helpers from the executor that each take one of cpuPermits; the calling thread is
+    // assumed to hold a permit already. Without an executor or permits the calling thread scales alone
+    public File resize(File input, File output, IntConsumer progress, ConversionMetrics metrics,
+                       Executor helpers, Semaphore cpuPermits) throws IOException {
+        long stageStart = System.nanoTime();
+        try (ImageInputStream in = ImageIO.createImageInputStream(input)) {
+            if (in == null) {
+                throw new IOException("Cannot open " + input.getName());
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                throw new IOException("Unsupported image format: " + input.getName());
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                String format = reader.getFormatName();
+                int sourceWidth = reader.getWidth(0);
+                int sourceHeight = reader.getHeight(0);
+
+                // Fit inside the target box, keeping the aspect ratio and never enlarging
+                double scale = Math.min(1.0, Math.min((double) maxWidth / sourceWidth, (double) maxHeight / sourceHeight));
+                int targetWidth = Math.max(1, (int) Math.round(sourceWidth * scale));
+                int targetHeight = Math.max(1, (int) Math.round(sourceHeight * scale));
+
+                BufferedImage decoded = decodeSubsampled(reader, sourceWidth, sourceHeight, targetWidth, targetHeight, progress);
+                stageStart = recordStage(metrics, ConversionMetrics.Stage.READ, stageStart);
+                BufferedImage resized = scaleInBands(decoded, targetWidth, targetHeight, helpers, cpuPermits);
+                decoded = null; // Let the decoded image go before encoding the output
+                stageStart = recordStage(metrics, ConversionMetrics.Stage.CONVERT, stageStart);
+                progress.accept(90);
+
+                if (!ImageIO.write(resized, format, output)) {
+                    throw new IOException("No " + format + " writer for " + output.getName());
+                }
+                recordStage(metrics, ConversionMetrics.Stage.WRITE, stageStart);
+                progress.accept(100);
+                return output;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Records the time since stageStart as the given stage and returns the start of the next stage
+    private static long recordStage(ConversionMetrics metrics, ConversionMetrics.Stage stage, long stageStart) {
+        long now = System.nanoTime();
+        if (metrics != null) {
+            metrics.record(stage, now - stageStart);
+        }
+        return now;
+    }
+
+    // Decodes the image keeping every s-th pixel of every s-th row, with s leaving at least twice the target size
+    private BufferedImage decodeSubsampled(ImageReader reader, int sourceWidth, int sourceHeight,
+                                           int targetWidth, int targetHeight, IntConsumer progress) throws IOException {
+        int subsampling = Math.max(1, Math.min(sourceWidth / (2 * targetWidth), sourceHeight / (2 * targetHeight)));
+        ImageReadParam param = reader.getDefaultReadParam();
+        param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+
+        // Report decoding progress and stop decoding if the conversion is cancelled
+        Thread worker = Thread.currentThread();
+        IIOReadProgressListener listener = new IIOReadProgressListener() {
+            @Override
+            public void imageProgress(ImageReader source, float percentageDone) {
+                progress.accept((int) (percentageDone * DECODE_PROGRESS / 100));
+                if (worker.isInterrupted()) {
+                    source.abort();
+                }
+            }
+
+            @Override public void sequenceStarted(ImageReader source, int minIndex) { }
+            @Override public void sequenceComplete(ImageReader source) { }
+            @Override public void imageStarted(ImageReader source, int imageIndex) { }
+            @Override public void imageComplete(ImageReader source) { }
+            @Override public void thumbnailStarted(ImageReader source, int imageIndex, int thumbnailIndex) { }
+            @Override public void thumbnailProgress(ImageReader source, float percentageDone) { }
+            @Override public void thumbnailComplete(ImageReader source) { }
+            @Override public void readAborted(ImageReader source) { }
+        };
+        reader.addIIOReadProgressListener(listener);
+        try {
+            BufferedImage decoded = reader.read(0, param);
+            if (worker.isInterrupted()) {
+                throw new InterruptedIOException("Image resize cancelled");
+            }
+            return decoded;
+        } finally {
+            reader.removeIIOReadProgressListener(listener);
+        }
+    }
+
+    // Scales the image to the target size, one band of output rows at a time, with helpers that hold a CPU permit
+    private static BufferedImage scaleInBands(BufferedImage source, int targetWidth, int targetHeight,
+                                              Executor helpers, Semaphore cpuPermits) throws IOException {
+        int type = source.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        int bandCount = (targetHeight + BAND_ROWS - 1) / BAND_ROWS;
+        BufferedImage[] bands = new BufferedImage[bandCount];
+        Queue<Integer> pending = new ConcurrentLinkedQueue<>();
+        for (int band = 0; band < bandCount; band++) {
+            pending.add(band);
+        }
+        CountDownLatch done = new CountDownLatch(bandCount);
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        Runnable worker = () -> {
+            for (Integer band; (band = pending.poll()) != null; done.countDown()) {
+                try {
+                    if (failure.get() == null) {
+                        bands[band] = scaleBand(source, targetWidth, targetHeight, band * BAND_ROWS, type);
+                    }
+                } catch (RuntimeException e) {
+                    failure.compareAndSet(null, e);
+                }
+            }
+        };
+
+        if (helpers != null && cpuPermits != null) {
+            int helperCount = Math.min(bandCount, Runtime.getRuntime().availableProcessors()) - 1;
+            for (int i = 0; i < helperCount; i++) {
+                try {
+                    helpers.execute(() -> {
+                        // Without a free core the calling thread does the rest
+                        if (cpuPermits.tryAcquire()) {
+                            try {
+                                worker.run();
+                            } finally {
+                                cpuPermits.release();
+                            }
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    break; // Executor shut down: the calling thread does the rest
+                }
+            }
+        }
+        worker.run();
+        try {
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Image resize cancelled");
+        }
+        if (failure.get() != null) {
+            throw new IIOException("Scaling failed", failure.get());
+        }
+
+        BufferedImage target = new BufferedImage(targetWidth, targetHeight, type);
+        for (int band = 0; band < bandCount; band++) {
+            target.getRaster().setRect(0, band * BAND_ROWS, bands[band].getRaster());
+            bands[band] = null;
+        }
+        return target;
+    }
+
+    // Draws the output rows from bandTop into an image of their own
+    private static BufferedImage scaleBand(BufferedImage source, int targetWidth, int targetHeight, int bandTop, int type) {
+        int bandRows = Math.min(BAND_ROWS, targetHeight - bandTop);
+        BufferedImage band = new BufferedImage(targetWidth, bandRows, type);
+        Graphics2D g = band.createGraphics();
+        try {
+            // Same transform for every band, shifted to its own rows, so the bands join without seams
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.translate(0, -bandTop);
+            g.drawImage(source, 0, 0, targetWidth, targetHeight, null);
+        } finally {
+            g.dispose();
+        }
+        return band;
+    }
+
+    // Benchmark: resizes generated JPEGs and reports megapixels per second and peak heap, against a full decode
+    public static void main(String[] args) throws IOException {
+        int[][] sizes = {{4000, 3000}, {8000, 6000}};
+        ImageResizeConverter converter = new ImageResizeConverter(1024, 1024);
+        // The benchmark thread holds one core; helpers may take the others
+        Semaphore cpuPermits = new Semaphore(Math.max(0, Runtime.getRuntime().availableProcessors() - 1));
+        File dir = Files.createTempDirectory("resize-bench").toFile();
+
+        for (int[] size : sizes) {
+            File input = new File(dir, "source_" + size[0] + "x" + size[1] + ".jpg");
+            writeTestImage(input, size[0], size[1]);
+            double megapixels = size[0] * (double) size[1] / 1e6;
+
+            // Streaming, subsampled resize
+            resetPeakHeap();
+            long start = System.nanoTime();
+            converter.resize(input, outputFileFor(input), percent -> { }, null, ForkJoinPool.commonPool(), cpuPermits);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("%dx%d (%.0f MP) subsampled: %.2f s, %.1f MP/s, peak heap %d MB%n",
+                    size[0], size[1], megapixels, seconds, megapixels / seconds, peakHeapMegabytes());
+
+            // Baseline: decode the whole image, then scale it
+            resetPeakHeap();
+            start = System.nanoTime();
+            BufferedImage full = ImageIO.read(input);
+            scaleInBands(full, 1024, (int) Math.round(1024.0 * size[1] / size[0]), ForkJoinPool.commonPool(), cpuPermits);
+            full = null;
+            seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("%dx%d (%.0f MP) full decode: %.2f s, %.1f MP/s, peak heap %d MB%n",
+                    size[0], size[1], megapixels, seconds, megapixels / seconds, peakHeapMegabytes());
+        }
+
+        for (File file : dir.listFiles()) {
+            file.delete();
+        }
+        dir.delete();
+    }
+
+    // Writes a noisy gradient JPEG of the given size, drawn in strips to keep the generator itself small
+    private static void writeTestImage(File file, int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_3BYTE_BGR);
+        Random random = new Random(1);
+        Graphics2D g = image.createGraphics();
+        for (int y = 0; y < height; y += 16) {
+            g.setColor(new Color(y * 255 / height, random.nextInt(256), 128));
+            g.fillRect(0, y, width, 16);
+        }
+        g.dispose();
+        ImageIO.write(image, "jpg", file);
+    }
+
+    private static void resetPeakHeap() {
+        System.gc();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    private static long peakHeapMegabytes() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak >> 20;
+    }
+}
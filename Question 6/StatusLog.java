@@ -0,0 +1,108 @@
+/**
+ * StatusLog keeps the most recent status messages in a fixed-size ring buffer, so the status area shows a bounded
+ * number of lines no matter how many files are converted. Optionally every message is also written to a spill
+ * file, which keeps the full history on disk.
+ *
+ * How it works:
+ * - `append` may be called from any thread. It overwrites the oldest line once the buffer is full and bumps a
+ *   version counter.
+ * - The UI polls `version` on its own timer and calls `snapshot` only when something changed, so a burst of
+ *   messages costs a single repaint.
+ * - The spill file is written through a BufferedWriter and flushed whenever the UI takes a snapshot and on close.
+ *
+ * Time Complexity:
+ * O(1) per message; O(capacity) per snapshot.
+ */
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class StatusLog implements AutoCloseable {
+
+    private final String[] lines; // Ring buffer of the most recent messages
+    private int head;             // Index of the oldest message
+    private int size;
+    private long version;         // Incremented by every append
+    private BufferedWriter spill; // Full history, or null when not spilling
+
+    // Creates a log keeping the last capacity messages, also appending every message to spillFile if it is not null
+    public StatusLog(int capacity, Path spillFile) throws IOException {
+        this.lines = new String[Math.max(1, capacity)];
+        if (spillFile != null) {
+            spill = Files.newBufferedWriter(spillFile, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+    }
+
+    public synchronized void append(String message) {
+        int tail = head + size;
+        if (tail >= lines.length) {
+            tail -= lines.length;
+        }
+        lines[tail] = message;
+        if (size < lines.length) {
+            size++;
+        } else {
+            head = head + 1 == lines.length ? 0 : head + 1;
+        }
+        version++;
+        if (spill != null) {
+            try {
+                spill.write(message);
+                spill.newLine();
+            } catch (IOException e) {
+                // Stop spilling rather than failing the conversion that logged the message
+                closeSpill();
+                append("Status log spill stopped: " + e.getMessage());
+            }
+        }
+    }
+
+    public synchronized long version() {
+        return version;
+    }
+
+    // The buffered messages, oldest first, one per line
+    public synchronized String snapshot() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            int index = head + i;
+            text.append(lines[index >= lines.length ? index - lines.length : index]).append('\n');
+        }
+        flushSpill();
+        return text.toString();
+    }
+
+    private void flushSpill() {
+        if (spill != null) {
+            try {
+                spill.flush();
+            } catch (IOException e) {
+                closeSpill();
+            }
+        }
+    }
+
+    private void closeSpill() {
+        BufferedWriter writer = spill;
+        spill = null;
+        try {
+            writer.close();
+        } catch (IOException ignored) {
+            // Nothing more can be written to it anyway
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (spill != null) {
+            flushSpill();
+            if (spill != null) {
+                closeSpill();
+            }
+        }
+    }
+}
@@ -0,0 +1,281 @@
+/**
+ * StreamingFileIO reads and writes files in fixed-size chunks through NIO channels, so a conversion never needs the
+ * whole file in memory: per-file memory is one pooled buffer whether the file is 1 KB or 10 GB.
+ *
+ * Modes:
+ * 1. `transform`: reads the input FileChannel into a pooled direct buffer, lets a ChunkProcessor work on the chunk
+ *    in place and writes it to the output FileChannel, until the end of the input.
+ * 2. `transformMapped`: maps the input in regions of `MAP_REGION_SIZE` bytes instead of reading it, so the data
+ *    is paged in by the operating system and never copied into a buffer first. Each region is unmapped by the
+ *    garbage collector, so only a bounded window is mapped in practice.
+ * 3. `forEachChunk`: read-only pass over the input, e.g. for hashing.
+ * 4. `transformSegments`: splits a large input into byte ranges that are streamed at the same time, each with its
+ *    own pooled buffer and positional reads and writes. The calling thread works through the ranges itself and
+ *    hands helper tasks to an executor; a helper that starts after every range is taken simply returns, so the
+ *    caller only ever waits for ranges that are already running and a busy executor cannot deadlock it.
+ *
+ * The `main` method is a throughput benchmark over generated files (1 GB by default, e.g. `1 5 10` for 1, 5 and
+ * 10 GB), comparing both modes with a whole-file `Files.readAllBytes` copy where that still fits in memory.
+ *
+ * Time Complexity:
+ * O(file size) for every mode, with O(buffer size) memory.
+ */
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongConsumer;
+
+public final class StreamingFileIO {
+
+    // Works on one chunk of a file; the data to use lies between the buffer's position and limit
+    public interface ChunkProcessor {
+        void process(ByteBuffer chunk) throws IOException;
+    }
+
+    // Size of each memory-mapped region of the input
+    public static final long MAP_REGION_SIZE = 64L << 20;
+
+    private static final StreamingFileIO SHARED = new StreamingFileIO(BufferPool.shared());
+
+    private final BufferPool pool;
+
+    public StreamingFileIO(BufferPool pool) {
+        this.pool = pool;
+    }
+
+    // Instance backed by the JVM-wide buffer pool
+    public static StreamingFileIO shared() {
+        return SHARED;
+    }
+
+    // Streams input through the processor into output; bytesDone receives the running total; returns the bytes written
+    public long transform(Path input, Path output, ChunkProcessor processor, LongConsumer bytesDone)
+            throws IOException, InterruptedException {
+        ByteBuffer buffer = pool.acquire();
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            long total = 0;
+            while (in.read(buffer) >= 0) {
+                buffer.flip();
+                processor.process(buffer);
+                while (buffer.hasRemaining()) {
+                    total += out.write(buffer);
+                }
+                buffer.clear();
+                bytesDone.accept(total);
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedException("Streaming of " + input.getFileName() + " cancelled");
+                }
+            }
+            return total;
+        } finally {
+            pool.release(buffer);
+        }
+    }
+
+    // Like transform, but maps the input region by region instead of reading it into a buffer
+    public long transformMapped(Path input, Path output, ChunkProcessor processor, LongConsumer bytesDone)
+            throws IOException, InterruptedException {
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            long size = in.size();
+            long total = 0;
+            for (long position = 0; position < size; position += MAP_REGION_SIZE) {
+                // Mapped read-only: a processor that changes the data must use transform instead
+                MappedByteBuffer region = in.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAP_REGION_SIZE, size - position));
+                processor.process(region);
+                while (region.hasRemaining()) {
+                    total += out.write(region);
+                }
+                bytesDone.accept(total);
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedException("Streaming of " + input.getFileName() + " cancelled");
+                }
+            }
+            return total;
+        }
+    }
+
+    // Streams the input in the given number of byte ranges at once, using helpers for all but the calling thread
+    public void transformSegments(Path input, Path output, ChunkProcessor processor, int segments, Executor helpers)
+            throws IOException, InterruptedException {
+        long size = Files.size(input);
+        // Create or empty the output once; the ranges then write into it at their own positions
+        FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING).close();
+        long segmentSize = (size + segments - 1) / segments;
+        Queue<long[]> ranges = new ConcurrentLinkedQueue<>();
+        for (long position = 0; position < size; position += segmentSize) {
+            ranges.add(new long[]{position, Math.min(segmentSize, size - position)});
+        }
+        CountDownLatch done = new CountDownLatch(ranges.size());
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        Runnable worker = () -> {
+            for (long[] range; (range = ranges.poll()) != null; done.countDown()) {
+                try {
+                    if (failure.get() == null) {
+                        transformRange(input, output, range[0], range[1], processor);
+                    }
+                } catch (Exception e) {
+                    failure.compareAndSet(null, e);
+                }
+            }
+        };
+        for (int i = 1; i < ranges.size(); i++) {
+            try {
+                helpers.execute(worker);
+            } catch (RejectedExecutionException e) {
+                break; // Executor shut down: the calling thread does the rest
+            }
+        }
+        worker.run();
+        done.await();
+        Exception e = failure.get();
+        if (e instanceof IOException) {
+            throw (IOException) e;
+        } else if (e instanceof InterruptedException) {
+            throw (InterruptedException) e;
+        } else if (e != null) {
+            throw (RuntimeException) e;
+        }
+    }
+
+    // Streams length bytes from position of the input through the processor to the same position of the output
+    public void transformRange(Path input, Path output, long position, long length, ChunkProcessor processor)
+            throws IOException, InterruptedException {
+        ByteBuffer buffer = pool.acquire();
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(output, StandardOpenOption.WRITE)) {
+            for (long offset = position, end = position + length; offset < end; ) {
+                buffer.clear();
+                buffer.limit((int) Math.min(buffer.capacity(), end - offset));
+                if (in.read(buffer, offset) < 0) {
+                    break;
+                }
+                buffer.flip();
+                processor.process(buffer);
+                while (buffer.hasRemaining()) {
+                    offset += out.write(buffer, offset);
+                }
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedException("Streaming of " + input.getFileName() + " cancelled");
+                }
+            }
+        } finally {
+            pool.release(buffer);
+        }
+    }
+
+    // Passes every chunk of the input to the processor without writing anything
+    public void forEachChunk(Path input, ChunkProcessor processor) throws IOException, InterruptedException {
+        ByteBuffer buffer = pool.acquire();
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ)) {
+            while (in.read(buffer) >= 0) {
+                buffer.flip();
+                processor.process(buffer);
+                buffer.clear();
+            }
+        } finally {
+            pool.release(buffer);
+        }
+    }
+
+    // Benchmark: copies generated files with both streaming modes and reports throughput and peak heap
+    public static void main(String[] args) throws IOException, InterruptedException {
+        double[] gigabytes = args.length == 0 ? new double[]{1} : new double[args.length];
+        for (int i = 0; i < args.length; i++) {
+            gigabytes[i] = Double.parseDouble(args[i]);
+        }
+        Path dir = Files.createTempDirectory("nio-bench");
+        StreamingFileIO io = shared();
+        ChunkProcessor identity = chunk -> { };
+        try {
+            for (double size : gigabytes) {
+                long bytes = (long) (size * (1L << 30));
+                Path input = dir.resolve("input.bin");
+                Path output = dir.resolve("output.bin");
+                writeTestFile(input, bytes);
+                System.out.printf("%.2f GB file (pool of %d MB):%n", size, io.pool.capacityBytes() >> 20);
+
+                resetPeakHeap();
+                long start = System.nanoTime();
+                io.transform(input, output, identity, done -> { });
+                report("  channel + pooled direct buffer", bytes, start);
+
+                resetPeakHeap();
+                start = System.nanoTime();
+                io.transformMapped(input, output, identity, done -> { });
+                report("  memory-mapped regions", bytes, start);
+
+                // The whole-file copy needs the file on the heap, so only try it while it fits
+                if (bytes < Runtime.getRuntime().maxMemory() / 2 && bytes < Integer.MAX_VALUE - 8) {
+                    resetPeakHeap();
+                    start = System.nanoTime();
+                    Files.write(output, Files.readAllBytes(input));
+                    report("  readAllBytes + write (baseline)", bytes, start);
+                } else {
+                    System.out.println("  readAllBytes + write (baseline): skipped, file does not fit in the heap");
+                }
+                Files.deleteIfExists(input);
+                Files.deleteIfExists(output);
+            }
+        } finally {
+            Files.deleteIfExists(dir.resolve("input.bin"));
+            Files.deleteIfExists(dir.resolve("output.bin"));
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    // Fills a file with a repeating pattern, one pooled buffer at a time
+    private static void writeTestFile(Path file, long bytes) throws IOException {
+        ByteBuffer pattern = ByteBuffer.allocateDirect(BufferPool.DEFAULT_BUFFER_SIZE);
+        for (int i = 0; i < pattern.capacity(); i++) {
+            pattern.put((byte) (i * 31));
+        }
+        try (FileChannel out = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (long written = 0; written < bytes; ) {
+                pattern.clear();
+                pattern.limit((int) Math.min(pattern.capacity(), bytes - written));
+                while (pattern.hasRemaining()) {
+                    written += out.write(pattern);
+                }
+            }
+        }
+    }
+
+    private static void report(String mode, long bytes, long start) {
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        System.out.printf("%-36s %8.1f MB/s, peak heap %d MB%n", mode, bytes / 1e6 / seconds, peak >> 20);
+    }
+
+    private static void resetPeakHeap() {
+        System.gc();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+}
@@ -0,0 +1,521 @@
+/**
+ * DeliveryListParser reads delivery lists in the format of the delivery list text area, one city per line:
+ * `name, x, y, distanceToNext, neighbor;distance, neighbor;distance, ...`, from a file or any Reader, and compiles
+ * them straight into a `RouteGraph`.
+ *
+ * How it works:
+ * 1. The input is read into a reusable char buffer and scanned for line ends; a line cut by the end of the buffer is
+ *    moved to the front before the next read, so no line is ever copied into a String.
+ * 2. Each line is scanned field by field with indices into the buffer: separators are found by comparing chars,
+ *    whitespace is trimmed by moving the indices, and numbers are accumulated digit by digit with an overflow check.
+ * 3. City names are interned through an open-addressing hash table over the buffer's chars: a name is copied into
+ *    one shared char pool and gets a dense id the first time it appears, and every later reference is an int. The
+ *    names become Strings only once, when the graph is built.
+ * 4. Roads are collected in growable int arrays and turned into CSR arrays at the end. A road listed twice keeps the
+ *    last distance, as `City.addConnection` does.
+ * 5. A malformed line or field does not stop the parse: it is recorded as a `Problem` with its line number (the
+ *    first MAX_REPORTED_PROBLEMS of them are kept, all are counted) and the rest of the input is still read.
+ *
+ * Differences from the original text area parsing: blank lines are skipped instead of reported, a city's coordinates
+ * come from its own line even if an earlier line already named it as a neighbor (they used to stay at 0, 0), and a
+ * bad road field is reported and skipped without dropping the rest of its line.
+ *
+ * The `main` method generates a network file (1,000,000 lines by default) and times this parser against the
+ * original split-based parsing.
+ *
+ * Time Complexity:
+ * O(input length), with memory proportional to the number of cities and roads, not to the size of the input.
+ */
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public final class DeliveryListParser {
+
+    public static final int MAX_REPORTED_PROBLEMS = 100;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final String FORMAT = "name, x, y, distanceToNext, neighborName;distance";
+    private static final long NOT_A_NUMBER = Long.MIN_VALUE;
+
+    // A malformed line or field
+    public static final class Problem {
+        public final int line;
+        public final String message;
+
+        Problem(int line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+
+        @Override
+        public String toString() {
+            return "Line " + line + ": " + message;
+        }
+    }
+
+    // Parsed network and everything that was wrong with the input
+    public static final class Result {
+        public final RouteGraph graph;
+        public final List<Problem> problems; // The first MAX_REPORTED_PROBLEMS problems
+        public final int problemCount;       // All problems, including those not kept
+        public final int lineCount;
+
+        Result(RouteGraph graph, List<Problem> problems, int problemCount, int lineCount) {
+            this.graph = graph;
+            this.problems = Collections.unmodifiableList(problems);
+            this.problemCount = problemCount;
+            this.lineCount = lineCount;
+        }
+
+        public boolean hasProblems() {
+            return problemCount > 0;
+        }
+
+        // Summary of the problems for one message, listing at most maxProblems of them
+        public String report(int maxProblems) {
+            StringBuilder report = new StringBuilder();
+            report.append(problemCount).append(problemCount == 1 ? " problem" : " problems").append(" in ")
+                    .append(lineCount).append(" lines; the lines or fields affected were skipped.");
+            for (int i = 0; i < Math.min(maxProblems, problems.size()); i++) {
+                report.append('\n').append(problems.get(i));
+            }
+            if (problemCount > maxProblems) {
+                report.append("\n... and ").append(problemCount - Math.min(maxProblems, problems.size())).append(" more");
+            }
+            report.append("\nExpected format: '").append(FORMAT).append("'.");
+            return report.toString();
+        }
+
+        // City objects with their connections, by name, for the map panel
+        public Map<String, DeliveryRouteOptimizationApp.City> toCityMap() {
+            int n = graph.cityCount();
+            DeliveryRouteOptimizationApp.City[] cities = new DeliveryRouteOptimizationApp.City[n];
+            Map<String, DeliveryRouteOptimizationApp.City> cityMap = new HashMap<>(2 * n);
+            for (int i = 0; i < n; i++) {
+                cities[i] = new DeliveryRouteOptimizationApp.City(graph.names[i], graph.xs[i], graph.ys[i]);
+                cityMap.put(graph.names[i], cities[i]);
+            }
+            for (int i = 0; i < n; i++) {
+                for (int road = graph.offsets[i]; road < graph.offsets[i + 1]; road++) {
+                    cities[i].addConnection(cities[graph.targets[road]], graph.weights[road]);
+                }
+            }
+            return cityMap;
+        }
+    }
+
+    private char[] buffer = new char[BUFFER_SIZE];
+    private int lineNumber;
+
+    // Cities by id: the name of city i is nameChars[nameStart[i]] until nameChars[nameStart[i + 1]]
+    private char[] nameChars = new char[1 << 14];
+    private int[] nameStart = new int[1025];
+    private int[] xs = new int[1024];
+    private int[] ys = new int[1024];
+    private boolean[] defined = new boolean[1024]; // The city had a line of its own
+    private int cityCount;
+
+    // Open-addressing hash table from name to city: slot s holds id + 1 (0 when free) at 2s and the name's hash at
+    // 2s + 1, so most mismatches are rejected without touching the names
+    private int[] table = new int[2 * 2048];
+
+    // Roads in input order
+    private int[] roadFrom = new int[4096];
+    private int[] roadTo = new int[4096];
+    private int[] roadWeight = new int[4096];
+    private int roadCount;
+
+    private final List<Problem> problems = new ArrayList<>();
+    private int problemCount;
+
+    private DeliveryListParser() {
+    }
+
+    public static Result parse(Path file) throws IOException {
+        try (Reader reader = new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8)) {
+            return parse(reader);
+        }
+    }
+
+    public static Result parse(Reader reader) throws IOException {
+        return new DeliveryListParser().run(reader);
+    }
+
+    private Result run(Reader reader) throws IOException {
+        int start = 0;   // First unparsed char
+        int scanned = 0; // Chars before this have been searched for a line end
+        int limit = 0;   // End of the chars read
+        boolean endOfInput = false;
+        while (true) {
+            int lineEnd = scanned;
+            while (lineEnd < limit && buffer[lineEnd] != '\n') {
+                lineEnd++;
+            }
+            if (lineEnd < limit) {
+                parseLine(start, lineEnd);
+                start = lineEnd + 1;
+                scanned = start;
+                continue;
+            }
+            if (endOfInput) {
+                if (start < limit) {
+                    parseLine(start, limit);
+                }
+                break;
+            }
+            // Keep the unfinished line, moved to the front of the buffer, and read more after it
+            scanned = limit - start;
+            System.arraycopy(buffer, start, buffer, 0, limit - start);
+            limit -= start;
+            start = 0;
+            if (limit == buffer.length) {
+                buffer = Arrays.copyOf(buffer, 2 * buffer.length);
+            }
+            int read = reader.read(buffer, limit, buffer.length - limit);
+            if (read < 0) {
+                endOfInput = true;
+            } else {
+                limit += read;
+            }
+        }
+        return new Result(buildGraph(), problems, problemCount, lineNumber);
+    }
+
+    private void parseLine(int from, int to) {
+        lineNumber++;
+        from = skipSpace(from, to);
+        to = trimEnd(from, to);
+        if (from == to) {
+            return; // Blank line
+        }
+
+        // name, x, y and distanceToNext are required
+        int nameEnd = indexOf(',', from, to);
+        int xEnd = nameEnd < to ? indexOf(',', nameEnd + 1, to) : to;
+        int yEnd = xEnd < to ? indexOf(',', xEnd + 1, to) : to;
+        if (yEnd == to) {
+            problem(from, to, "expected '" + FORMAT + "'");
+            return;
+        }
+        int nextEnd = indexOf(',', yEnd + 1, to);
+        int nameFrom = from;
+        int nameTo = trimEnd(nameFrom, nameEnd);
+        long x = parseNumber(nameEnd + 1, xEnd);
+        long y = parseNumber(xEnd + 1, yEnd);
+        long distanceToNext = parseNumber(yEnd + 1, nextEnd);
+        if (nameFrom == nameTo) {
+            problem(from, to, "missing city name");
+            return;
+        }
+        if (x == NOT_A_NUMBER || y == NOT_A_NUMBER || distanceToNext == NOT_A_NUMBER) {
+            problem(from, to, "x, y and distanceToNext must be whole numbers");
+            return;
+        }
+        int city = intern(nameFrom, nameTo);
+        if (!defined[city]) {
+            defined[city] = true;
+            xs[city] = (int) x;
+            ys[city] = (int) y;
+        }
+
+        // neighbor;distance fields
+        for (int fieldStart = nextEnd + 1; fieldStart <= to; ) {
+            int fieldEnd = indexOf(',', fieldStart, to);
+            parseRoad(city, skipSpace(fieldStart, fieldEnd), trimEnd(fieldStart, fieldEnd));
+            fieldStart = fieldEnd + 1;
+        }
+    }
+
+    private void parseRoad(int city, int from, int to) {
+        if (from >= to) {
+            return; // Empty field, e.g. after a trailing comma
+        }
+        int separator = indexOf(';', from, to);
+        if (separator == to || indexOf(';', separator + 1, to) != to) {
+            problem(from, to, "expected 'neighborName;distance'");
+            return;
+        }
+        int nameTo = trimEnd(from, separator);
+        long distance = parseNumber(separator + 1, to);
+        if (from == nameTo) {
+            problem(from, to, "missing neighbor name");
+        } else if (distance == NOT_A_NUMBER) {
+            problem(from, to, "distance must be a whole number");
+        } else {
+            addRoad(city, intern(from, nameTo), (int) distance);
+        }
+    }
+
+    // Whole number between from and to (surrounding whitespace allowed) within int range, or NOT_A_NUMBER
+    private long parseNumber(int from, int to) {
+        from = skipSpace(from, to);
+        to = trimEnd(from, to);
+        boolean negative = false;
+        if (from < to && (buffer[from] == '-' || buffer[from] == '+')) {
+            negative = buffer[from] == '-';
+            from++;
+        }
+        if (from == to) {
+            return NOT_A_NUMBER;
+        }
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = buffer[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return NOT_A_NUMBER;
+            }
+            value = 10 * value + digit;
+            if (value > (long) Integer.MAX_VALUE + 1) {
+                return NOT_A_NUMBER;
+            }
+        }
+        value = negative ? -value : value;
+        return value > Integer.MAX_VALUE ? NOT_A_NUMBER : value;
+    }
+
+    // Id of the city named by the chars between from and to, adding it the first time
+    private int intern(int from, int to) {
+        int hash = 0;
+        for (int i = from; i < to; i++) {
+            hash = 31 * hash + buffer[i];
+        }
+        // Names like City1, City2, ... have neighboring polynomial hashes, which would cluster under linear probing
+        hash *= 0x9E3779B9;
+        hash ^= hash >>> 16;
+        int mask = table.length / 2 - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int id = table[2 * slot] - 1;
+            if (id < 0) {
+                id = addCity(from, to);
+                table[2 * slot] = id + 1;
+                table[2 * slot + 1] = hash;
+                if (4 * cityCount > table.length) {
+                    rehash();
+                }
+                return id;
+            }
+            if (table[2 * slot + 1] == hash && sameName(id, from, to)) {
+                return id;
+            }
+        }
+    }
+
+    private boolean sameName(int id, int from, int to) {
+        int start = nameStart[id];
+        if (nameStart[id + 1] - start != to - from) {
+            return false;
+        }
+        for (int i = from; i < to; i++) {
+            if (nameChars[start++] != buffer[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int addCity(int from, int to) {
+        if (cityCount + 1 == nameStart.length) {
+            int capacity = 2 * cityCount;
+            nameStart = Arrays.copyOf(nameStart, capacity + 1);
+            xs = Arrays.copyOf(xs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+            defined = Arrays.copyOf(defined, capacity);
+        }
+        int start = nameStart[cityCount];
+        if (start + (to - from) > nameChars.length) {
+            nameChars = Arrays.copyOf(nameChars, Math.max(2 * nameChars.length, start + (to - from)));
+        }
+        System.arraycopy(buffer, from, nameChars, start, to - from);
+        nameStart[cityCount + 1] = start + (to - from);
+        return cityCount++;
+    }
+
+    private void rehash() {
+        int[] old = table;
+        table = new int[2 * old.length];
+        int mask = table.length / 2 - 1;
+        for (int oldSlot = 0; oldSlot < old.length; oldSlot += 2) {
+            if (old[oldSlot] != 0) {
+                int slot = old[oldSlot + 1] & mask;
+                while (table[2 * slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                table[2 * slot] = old[oldSlot];
+                table[2 * slot + 1] = old[oldSlot + 1];
+            }
+        }
+    }
+
+    private void addRoad(int from, int to, int distance) {
+        if (roadCount == roadFrom.length) {
+            int capacity = 2 * roadFrom.length;
+            roadFrom = Arrays.copyOf(roadFrom, capacity);
+            roadTo = Arrays.copyOf(roadTo, capacity);
+            roadWeight = Arrays.copyOf(roadWeight, capacity);
+        }
+        roadFrom[roadCount] = from;
+        roadTo[roadCount] = to;
+        roadWeight[roadCount] = distance;
+        roadCount++;
+    }
+
+    // Sorts the roads into CSR arrays by city, in input order, keeping the last distance of a repeated road
+    private RouteGraph buildGraph() {
+        int n = cityCount;
+        int[] offsets = new int[n + 1];
+        for (int i = 0; i < roadCount; i++) {
+            offsets[roadFrom[i] + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+        int[] targets = new int[roadCount];
+        int[] weights = new int[roadCount];
+        int[] next = Arrays.copyOf(offsets, n);
+        for (int i = 0; i < roadCount; i++) {
+            int road = next[roadFrom[i]]++;
+            targets[road] = roadTo[i];
+            weights[road] = roadWeight[i];
+        }
+
+        // Drop repeated roads in place: lastCity[t] == c means city c already has a road to t, at slotOf[t]
+        int[] lastCity = new int[n];
+        int[] slotOf = new int[n];
+        Arrays.fill(lastCity, -1);
+        int kept = 0;
+        for (int city = 0; city < n; city++) {
+            int begin = offsets[city];
+            int end = offsets[city + 1];
+            offsets[city] = kept;
+            for (int road = begin; road < end; road++) {
+                int target = targets[road];
+                if (lastCity[target] == city) {
+                    weights[slotOf[target]] = weights[road];
+                } else {
+                    lastCity[target] = city;
+                    slotOf[target] = kept;
+                    targets[kept] = target;
+                    weights[kept] = weights[road];
+                    kept++;
+                }
+            }
+        }
+        offsets[n] = kept;
+        String[] names = new String[n];
+        for (int i = 0; i < n; i++) {
+            names[i] = new String(nameChars, nameStart[i], nameStart[i + 1] - nameStart[i]);
+        }
+        return new RouteGraph(names, Arrays.copyOf(xs, n), Arrays.copyOf(ys, n), offsets,
+                Arrays.copyOf(targets, kept), Arrays.copyOf(weights, kept));
+    }
+
+    private void problem(int from, int to, String message) {
+        problemCount++;
+        if (problems.size() < MAX_REPORTED_PROBLEMS) {
+            String text = to - from > 60 ? new String(buffer, from, 57) + "..." : new String(buffer, from, to - from);
+            problems.add(new Problem(lineNumber, message + " in '" + text + "'"));
+        }
+    }
+
+    private int indexOf(char c, int from, int to) {
+        int i = from;
+        while (i < to && buffer[i] != c) {
+            i++;
+        }
+        return i;
+    }
+
+    // Same whitespace rule as String.trim
+    private int skipSpace(int from, int to) {
+        while (from < to && buffer[from] <= ' ') {
+            from++;
+        }
+        return from;
+    }
+
+    private int trimEnd(int from, int to) {
+        while (to > from && buffer[to - 1] <= ' ') {
+            to--;
+        }
+        return to;
+    }
+
+    // Benchmark: parses a generated delivery list with this parser and with the original split-based code
+    public static void main(String[] args) throws IOException {
+        int lines = args.length == 0 ? 1_000_000 : Integer.parseInt(args[0]);
+        Path file = Files.createTempFile("cities", ".txt");
+        try {
+            writeNetwork(file, lines, new Random(lines));
+            System.out.printf("%,d lines, %,d bytes%n", lines, Files.size(file));
+            for (int round = 1; round <= 3; round++) {
+                long start = System.nanoTime();
+                Result result = parse(file);
+                double parserMillis = (System.nanoTime() - start) / 1e6;
+
+                start = System.nanoTime();
+                Map<String, DeliveryRouteOptimizationApp.City> reference = referenceParse(Files.readString(file));
+                double referenceMillis = (System.nanoTime() - start) / 1e6;
+
+                System.out.printf("round %d: streaming parser %8.1f ms (%,d cities, %,d roads, %d problems), "
+                                + "original split parsing %8.1f ms (%,d cities)%n", round, parserMillis,
+                        result.graph.cityCount(), result.graph.roadCount(), result.problemCount, referenceMillis, reference.size());
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static void writeNetwork(Path file, int lines, Random random) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < lines; i++) {
+                out.write("City" + i + ", " + random.nextInt(10_000) + ", " + random.nextInt(10_000) + ", " + random.nextInt(500));
+                for (int j = 0; j < 3; j++) {
+                    out.write(", City" + random.nextInt(lines) + ";" + (1 + random.nextInt(500)));
+                }
+                out.newLine();
+            }
+        }
+    }
+
+    // The original parsing of the delivery list text area, without its error dialogs, for comparison
+    private static Map<String, DeliveryRouteOptimizationApp.City> referenceParse(String text) {
+        Map<String, DeliveryRouteOptimizationApp.City> tempCityMap = new HashMap<>();
+        for (String line : text.split("\n")) {
+            String[] parts = line.trim().split(",");
+            if (parts.length >= 4) {
+                try {
+                    String name = parts[0].trim();
+                    int x = Integer.parseInt(parts[1].trim());
+                    int y = Integer.parseInt(parts[2].trim());
+                    Integer.parseInt(parts[3].trim());
+                    DeliveryRouteOptimizationApp.City city = tempCityMap.computeIfAbsent(name, k -> new DeliveryRouteOptimizationApp.City(name, x, y));
+                    for (int i = 4; i < parts.length; i++) {
+                        String[] connectionParts = parts[i].trim().split(";");
+                        if (connectionParts.length == 2) {
+                            String neighborName = connectionParts[0].trim();
+                            int distance = Integer.parseInt(connectionParts[1].trim());
+                            DeliveryRouteOptimizationApp.City neighbor = tempCityMap.computeIfAbsent(neighborName,
+                                    k -> new DeliveryRouteOptimizationApp.City(neighborName, 0, 0));
+                            city.addConnection(neighbor, distance);
+                        }
+                    }
+                } catch (NumberFormatException ex) {
+                    // The original showed a dialog here
+                }
+            }
+        }
+        return tempCityMap;
+    }
+}
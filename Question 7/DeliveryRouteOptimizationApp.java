@@ -24,14 +24,14 @@ An inner class implementing ActionListener to handle the click event of the "Opt
 actionPerformed(): Reads input data, validates it, updates city connections, and triggers the optimization process asynchronously using an ExecutorService.
 Core Functionalities
 Data Parsing and Validation
-Reads and parses delivery city data from the JTextArea.
-Validates input format and creates City objects.
+Reads and parses delivery city data from the JTextArea with DeliveryListParser, which can also read large city files.
+Validates input format and collects malformed lines into one report.
 Adds connections between cities based on the input data.
 Route Optimization
 Uses Dijkstra's Algorithm to find the shortest path between the source and destination cities.
-findShortestPathDijkstra(): Implements Dijkstra's Algorithm to calculate the shortest path.
-getClosestCity(): Helper method to get the closest city from the set of unvisited cities.
-reconstructPath(): Reconstructs the shortest path from the source to the destination using the previous city map.
+findShortestPathDijkstra(): Runs DijkstraRouter, which keeps the reached cities in an indexed binary heap.
+findTSPNearestNeighbor(): Builds a tour by always driving to the closest unvisited neighbor.
+Both run on a RouteGraph, the snapshot of the cities that DeliveryListParser builds: cities are numbered with dense int ids, coordinates are kept in int[] xs and ys and the connections in CSR int arrays, so the algorithms never hash or box a City.
 City Class
 Represents a city with a name, coordinates (x, y), and a map of connections to other cities.
 addConnection(): Adds a connection to another city with a specified distance.
@@ -46,10 +46,9 @@ Detailed Breakdown of Key Methods
 actionPerformed()
 Input Parsing:
 
-Reads lines from deliveryListTextArea.
-Splits each line into parts to extract city details and connections.
-Creates or retrieves City objects and adds connections.
-Updates cityMap with parsed cities and connections.
+Reads deliveryListTextArea through DeliveryListParser, which scans the text in one pass without splitting it into substrings and builds the RouteGraph the algorithms run on.
+Updates cityMap with City objects for the parsed cities and connections, for the map panel.
+Shows one dialog listing the malformed lines, if any, instead of one dialog per line.
 Algorithm Selection and Validation:
 
 Retrieves the selected algorithm from algorithmComboBox.
@@ -64,9 +63,8 @@ Executes the route optimization process in a separate thread.
 Calls findShortestPathDijkstra() to find the optimized route.
 Updates the UI with the optimized route using SwingUtilities.invokeLater().
 findShortestPathDijkstra()
-Initializes distance and previous city maps.
-Uses a set of unvisited cities and iteratively finds the shortest path.
-Updates distances to neighboring cities and reconstructs the shortest path.
+Runs DijkstraRouter on the RouteGraph from the source id to the destination id.
+Maps the ids of the route back to City objects for the map panel.
  * DeliveryRouteOptimizationApp is a Swing-based GUI application for optimizing delivery routes using graph algorithms.
  * It allows users to input city data, select an optimization algorithm, and visualize the optimized route on a map.
  * 
@@ -83,16 +81,20 @@ Updates distances to neighboring cities and reconstructs the shortest path.
  * - JButton for triggering the route optimization process.
  * - RouteMapPanel for visualizing cities and routes.
  * - City class representing individual cities and their connections.
+ * - RouteGraph, the compiled int-indexed snapshot of the cities that the routing algorithms run on.
  * 
  * Time Complexity:
- * - Parsing input and creating city connections: O(n*m), where n is the number of cities and m is the number of connections per city.
- * - Dijkstra's Algorithm for shortest path calculation: O(V^2) with a simple implementation where V is the number of vertices (cities).
+ * - Parsing input and creating city connections: O(input length) with DeliveryListParser, i.e. O(n*m) for n cities with m connections each.
+ * - Dijkstra's Algorithm for shortest path calculation: O((V + E) log V) with the indexed binary heap of DijkstraRouter, where V is the number of vertices (cities) and E the number of connections.
  * - The complexity of rendering and adjusting city positions is mainly influenced by the number of cities and connections but is generally O(n^2) for overlap adjustment in the worst case.
  */
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
 import java.util.*;
 import java.util.List;
 import java.util.concurrent.Executors;
@@ -232,54 +234,25 @@ public class DeliveryRouteOptimizationApp extends JFrame {
     private class OptimizeButtonListener implements ActionListener {
         @Override
         public void actionPerformed(ActionEvent e) {
-            // Read delivery list from text area
-            String[] lines = deliveryListTextArea.getText().split("\n");
+            // Parse the delivery list in one pass and compile it straight into the snapshot the routing algorithms run on
+            DeliveryListParser.Result parsed;
+            try {
+                parsed = DeliveryListParser.parse(new StringReader(deliveryListTextArea.getText()));
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex); // A StringReader does not fail
+            }
+            RouteGraph graph = parsed.graph;
             cityMap.clear();
+            cityMap.putAll(parsed.toCityMap());
 
-            // Use a temporary map to avoid creating duplicate cities
-            Map<String, City> tempCityMap = new HashMap<>();
-
-            for (String line : lines) {
-                String[] parts = line.trim().split(",");
-                if (parts.length >= 4) {
-                    try {
-                        String name = parts[0].trim();
-                        int x = Integer.parseInt(parts[1].trim());
-                        int y = Integer.parseInt(parts[2].trim());
-                        int distanceToNext = Integer.parseInt(parts[3].trim());
-
-                        // Create or retrieve the city
-                        City city = tempCityMap.computeIfAbsent(name, k -> new City(name, x, y));
-
-                        // Add connection to the city
-                        for (int i = 4; i < parts.length; i++) {
-                            String[] connectionParts = parts[i].trim().split(";");
-                            if (connectionParts.length == 2) {
-                                String neighborName = connectionParts[0].trim();
-                                int distance = Integer.parseInt(connectionParts[1].trim());
-
-                                City neighbor = tempCityMap.computeIfAbsent(neighborName, k -> new City(neighborName, 0, 0));
-                                city.addConnection(neighbor, distance);
-                            }
-                        }
-                    } catch (NumberFormatException ex) {
-                        JOptionPane.showMessageDialog(DeliveryRouteOptimizationApp.this,
-                                "Invalid input in delivery list.",
-                                "Invalid Input",
-                                JOptionPane.ERROR_MESSAGE);
-                    }
-                } else {
-                    JOptionPane.showMessageDialog(DeliveryRouteOptimizationApp.this,
-                            "Delivery list format is incorrect. Use 'name, x, y, distanceToNext, neighborName;distance'.",
-                            "Invalid Input",
-                            JOptionPane.ERROR_MESSAGE);
-                }
+            // Report every malformed line at once; the lines that could be read are still used
+            if (parsed.hasProblems()) {
+                JOptionPane.showMessageDialog(DeliveryRouteOptimizationApp.this,
+                        parsed.report(10),
+                        "Invalid Input",
+                        JOptionPane.WARNING_MESSAGE);
             }
 
-            // Update cityMap with connections from tempCityMap
-            cityMap.putAll(tempCityMap);
-
-
             // Get selected algorithm
             String selectedAlgorithm = (String) algorithmComboBox.getSelectedItem();
 
@@ -318,10 +291,11 @@ public class DeliveryRouteOptimizationApp extends JFrame {
             executorService.execute(() -> {
                 try {
                     List<City> optimizedRoute;
+                    int sourceId = graph.idOf(sourceName);
                     if ("Dijkstra's Algorithm".equals(selectedAlgorithm)) {
-                        optimizedRoute = findShortestPathDijkstra(source, destination);
+                        optimizedRoute = findShortestPathDijkstra(graph, sourceId, graph.idOf(destinationName));
                     } else {
-                        optimizedRoute = findTSPNearestNeighbor(source);
+                        optimizedRoute = findTSPNearestNeighbor(graph, sourceId);
                     }
 
                     // Update UI with optimized route
@@ -332,89 +306,54 @@ public class DeliveryRouteOptimizationApp extends JFrame {
             });
         }
 
-        private List<City> findShortestPathDijkstra(City source, City destination) {
-            Map<City, City> previous = new HashMap<>();
-            Map<City, Integer> distances = new HashMap<>();
-            Set<City> unvisited = new HashSet<>(cityMap.values());
-
-            for (City city : cityMap.values()) {
-                distances.put(city, Integer.MAX_VALUE);
-            }
-            distances.put(source, 0);
-
-            while (!unvisited.isEmpty()) {
-                City current = getClosestCity(unvisited, distances);
-                unvisited.remove(current);
-
-                if (current.equals(destination)) {
-                    break;
-                }
-
-                // Update distances to neighboring cities
-                for (Map.Entry<City, Integer> entry : current.getConnections().entrySet()) {
-                    City neighbor = entry.getKey();
-                    int distance = entry.getValue();
-                    if (unvisited.contains(neighbor)) {
-                        int newDist = distances.get(current) + distance;
-                        if (newDist < distances.get(neighbor)) {
-                            distances.put(neighbor, newDist);
-                            previous.put(neighbor, current);
-                        }
-                    }
-                }
-            }
-
-            return reconstructPath(previous, source, destination);
+        private List<City> findShortestPathDijkstra(RouteGraph graph, int source, int destination) {
+            return toCities(graph, new DijkstraRouter(graph).shortestPath(source, destination));
         }
 
-        private List<City> findTSPNearestNeighbor(City start) {
-            List<City> route = new ArrayList<>();
-            Set<City> visited = new HashSet<>();
+        private List<City> findTSPNearestNeighbor(RouteGraph graph, int start) {
+            int cityCount = graph.cityCount();
+            int[] route = new int[cityCount + 1];
+            int length = 0;
+            boolean[] visited = new boolean[cityCount];
+            int visitedCount = 0;
 
-            City current = start;
-            while (visited.size() < cityMap.size()) {
-                route.add(current);
-                visited.add(current);
+            int current = start;
+            while (visitedCount < cityCount) {
+                route[length++] = current;
+                visited[current] = true;
+                visitedCount++;
 
-                City nextCity = null;
+                int nextCity = -1;
                 int minDistance = Integer.MAX_VALUE;
 
-                for (Map.Entry<City, Integer> entry : current.getConnections().entrySet()) {
-                    City neighbor = entry.getKey();
-                    int distance = entry.getValue();
-                    if (!visited.contains(neighbor) && distance < minDistance) {
+                for (int road = graph.offsets[current], end = graph.offsets[current + 1]; road < end; road++) {
+                    int neighbor = graph.targets[road];
+                    int distance = graph.weights[road];
+                    if (!visited[neighbor] && distance < minDistance) {
                         nextCity = neighbor;
                         minDistance = distance;
                     }
                 }
 
-                if (nextCity != null) {
+                if (nextCity >= 0) {
                     current = nextCity;
                 } else {
                     break;  // No more unvisited neighbors
                 }
             }
 
-            route.add(start);  // Return to the start to complete the circuit
-            return route;
+            route[length++] = start;  // Return to the start to complete the circuit
+            return toCities(graph, Arrays.copyOf(route, length));
         }
 
-        private City getClosestCity(Set<City> unvisited, Map<City, Integer> distances) {
-            return unvisited.stream()
-                    .min(Comparator.comparingInt(distances::get))
-                    .orElse(null);
-        }
-
-        private List<City> reconstructPath(Map<City, City> previous, City source, City destination) {
-            List<City> path = new ArrayList<>();
-            for (City at = destination; at != null; at = previous.get(at)) {
-                path.add(at);
+        // City objects of a route of ids, for the map panel
+        private List<City> toCities(RouteGraph graph, int[] route) {
+            List<City> cities = new ArrayList<>(route.length);
+            for (int id : route) {
+                cities.add(cityMap.get(graph.nameOf(id)));
             }
-            Collections.reverse(path);
-            return  path.size() > 1 && path.get(0).equals(source) ? path : Collections.emptyList();
+            return cities;
         }
-
-        
     }
 
     public static void main(String[] args) {
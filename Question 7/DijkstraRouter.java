@@ -0,0 +1,262 @@
+/**
+ * DijkstraRouter finds shortest delivery routes on a compiled `RouteGraph`, whose cities are numbered 0 to n - 1,
+ * with an `IndexedMinHeap` instead of scanning every unvisited city for the closest one.
+ *
+ * How it works:
+ * 1. Distances, predecessors and the settled flags are primitive arrays indexed by city id, allocated once per
+ *    router and reset between queries, so a query allocates nothing but its result.
+ * 2. The heap holds only cities that have been reached. The closest one is settled; every unsettled neighbor whose
+ *    distance gets strictly shorter is pushed or has its key lowered. The search stops when the destination is
+ *    settled or no reachable city is left.
+ * 3. The path is rebuilt from the predecessors. As in the original search, a route from a city to itself, or to a
+ *    city that cannot be reached, is empty.
+ *
+ * The cities are settled in the same order as with the original linear `getClosestCity` scan, so the route is the
+ * same whenever the shortest route is unique. Between routes of equal length the original choice depended on the
+ * iteration order of a HashSet of cities; here the city with the lower id is settled first, so it is repeatable.
+ * Distances are longs, so long routes no longer overflow, and unreachable cities are never expanded (the original
+ * added to Integer.MAX_VALUE for them).
+ *
+ * The `main` method benchmarks the router against the original algorithm on generated road networks.
+ *
+ * Time Complexity:
+ * O((V + E) log V) per query, with O(V) memory reused between queries.
+ */
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+public final class DijkstraRouter {
+
+    private static final int[] NO_ROUTE = new int[0];
+
+    private final RouteGraph graph;
+    private final long[] distance;
+    private final int[] previous;
+    private final boolean[] settled;
+    private final IndexedMinHeap heap;
+
+    public DijkstraRouter(RouteGraph graph) {
+        int n = graph.cityCount();
+        this.graph = graph;
+        this.distance = new long[n];
+        this.previous = new int[n];
+        this.settled = new boolean[n];
+        this.heap = new IndexedMinHeap(n);
+    }
+
+    // Cities on a shortest route from source to destination, both included, or an empty array if there is none
+    public int[] shortestPath(int source, int destination) {
+        Arrays.fill(distance, Long.MAX_VALUE);
+        Arrays.fill(previous, -1);
+        Arrays.fill(settled, false);
+        heap.clear();
+
+        distance[source] = 0;
+        heap.push(source, 0);
+        while (!heap.isEmpty()) {
+            int current = heap.poll();
+            settled[current] = true;
+            if (current == destination) {
+                break;
+            }
+            int[] targets = graph.targets;
+            int[] weights = graph.weights;
+            for (int road = graph.offsets[current], end = graph.offsets[current + 1]; road < end; road++) {
+                int neighbor = targets[road];
+                long newDistance = distance[current] + weights[road];
+                if (!settled[neighbor] && newDistance < distance[neighbor]) {
+                    distance[neighbor] = newDistance;
+                    previous[neighbor] = current;
+                    heap.push(neighbor, newDistance);
+                }
+            }
+        }
+        return reconstructPath(source, destination);
+    }
+
+    // Length of the route found by the last query to the given city, or Long.MAX_VALUE if it was not reached
+    public long distanceTo(int city) {
+        return distance[city];
+    }
+
+    private int[] reconstructPath(int source, int destination) {
+        int length = 0;
+        for (int at = destination; at >= 0; at = previous[at]) {
+            length++;
+        }
+        int[] path = new int[length];
+        for (int at = destination, i = length - 1; at >= 0; at = previous[at], i--) {
+            path[i] = at;
+        }
+        return path.length > 1 && path[0] == source ? path : NO_ROUTE;
+    }
+
+    // Benchmark: router against the original algorithm on grid-like road networks; arguments are network sizes
+    public static void main(String[] args) {
+        int[] sizes = args.length == 0 ? new int[]{1_000, 5_000, 10_000, 100_000} : new int[args.length];
+        for (int i = 0; i < args.length; i++) {
+            sizes[i] = Integer.parseInt(args[i]);
+        }
+        int queries = 20;
+        for (int size : sizes) {
+            Random random = new Random(size);
+            RouteGraph network = generateNetwork(size, random);
+            int n = network.cityCount();
+            DijkstraRouter router = new DijkstraRouter(network);
+            int[] sources = new int[queries];
+            int[] destinations = new int[queries];
+            for (int q = 0; q < queries; q++) {
+                sources[q] = random.nextInt(n);
+                destinations[q] = random.nextInt(n);
+            }
+
+            long start = System.nanoTime();
+            int[][] routes = new int[queries][];
+            long[] lengths = new long[queries];
+            for (int q = 0; q < queries; q++) {
+                routes[q] = router.shortestPath(sources[q], destinations[q]);
+                lengths[q] = router.distanceTo(destinations[q]);
+            }
+            double routerMillis = (System.nanoTime() - start) / 1e6 / queries;
+            System.out.printf("%,9d cities, %,9d roads: indexed heap %10.3f ms per route%n",
+                    n, network.roadCount(), routerMillis);
+
+            // The original is quadratic, so it only runs on the smaller networks
+            if (n > 20_000) {
+                continue;
+            }
+            List<DeliveryRouteOptimizationApp.City> cities = toCities(network);
+            int referenceQueries = Math.min(queries, 5);
+            int samePaths = 0;
+            int sameLengths = 0;
+            start = System.nanoTime();
+            for (int q = 0; q < referenceQueries; q++) {
+                List<DeliveryRouteOptimizationApp.City> reference =
+                        referenceDijkstra(cities, cities.get(sources[q]), cities.get(destinations[q]));
+                int[] ids = new int[reference.size()];
+                long length = 0;
+                for (int i = 0; i < ids.length; i++) {
+                    ids[i] = Integer.parseInt(reference.get(i).getName());
+                    if (i > 0) {
+                        length += reference.get(i - 1).getConnections().get(reference.get(i));
+                    }
+                }
+                samePaths += Arrays.equals(ids, routes[q]) ? 1 : 0;
+                sameLengths += ids.length == 0 ? (routes[q].length == 0 ? 1 : 0) : (length == lengths[q] ? 1 : 0);
+            }
+            double referenceMillis = (System.nanoTime() - start) / 1e6 / referenceQueries;
+            System.out.printf("%34s original     %10.3f ms per route (%.0fx slower), %d of %d routes identical, %d of %d same length%n",
+                    "", referenceMillis, referenceMillis / routerMillis, samePaths, referenceQueries, sameLengths, referenceQueries);
+        }
+    }
+
+    // A square grid of cities with roads to their four neighbors (a different length each way) and a few highways
+    private static RouteGraph generateNetwork(int size, Random random) {
+        int side = (int) Math.ceil(Math.sqrt(size));
+        int n = side * side;
+        List<List<int[]>> roads = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            roads.add(new ArrayList<>(5));
+        }
+        for (int row = 0; row < side; row++) {
+            for (int column = 0; column < side; column++) {
+                int city = row * side + column;
+                if (column + 1 < side) {
+                    roads.get(city).add(new int[]{city + 1, 10 + random.nextInt(1000)});
+                    roads.get(city + 1).add(new int[]{city, 10 + random.nextInt(1000)});
+                }
+                if (row + 1 < side) {
+                    roads.get(city).add(new int[]{city + side, 10 + random.nextInt(1000)});
+                    roads.get(city + side).add(new int[]{city, 10 + random.nextInt(1000)});
+                }
+            }
+        }
+        for (int i = 0; i < n / 100; i++) {
+            int from = random.nextInt(n);
+            int to = random.nextInt(n);
+            if (from != to) {
+                roads.get(from).add(new int[]{to, 5_000 + random.nextInt(20_000)});
+            }
+        }
+        String[] names = new String[n];
+        int[] xs = new int[n];
+        int[] ys = new int[n];
+        int[] offsets = new int[n + 1];
+        for (int city = 0; city < n; city++) {
+            names[city] = Integer.toString(city);
+            xs[city] = city % side;
+            ys[city] = city / side;
+            offsets[city + 1] = offsets[city] + roads.get(city).size();
+        }
+        int[] targets = new int[offsets[n]];
+        int[] weights = new int[offsets[n]];
+        for (int city = 0; city < n; city++) {
+            int road = offsets[city];
+            for (int[] r : roads.get(city)) {
+                targets[road] = r[0];
+                weights[road++] = r[1];
+            }
+        }
+        return new RouteGraph(names, xs, ys, offsets, targets, weights);
+    }
+
+    // The same network as City objects named by their id
+    private static List<DeliveryRouteOptimizationApp.City> toCities(RouteGraph network) {
+        int n = network.cityCount();
+        List<DeliveryRouteOptimizationApp.City> cities = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            cities.add(new DeliveryRouteOptimizationApp.City(network.nameOf(i), network.xs[i], network.ys[i]));
+        }
+        for (int i = 0; i < n; i++) {
+            for (int road = network.offsets[i]; road < network.offsets[i + 1]; road++) {
+                cities.get(i).addConnection(cities.get(network.targets[road]), network.weights[road]);
+            }
+        }
+        return cities;
+    }
+
+    // The original search with a linear scan for the closest unvisited city, kept for comparison
+    private static List<DeliveryRouteOptimizationApp.City> referenceDijkstra(List<DeliveryRouteOptimizationApp.City> cities,
+            DeliveryRouteOptimizationApp.City source, DeliveryRouteOptimizationApp.City destination) {
+        Map<DeliveryRouteOptimizationApp.City, DeliveryRouteOptimizationApp.City> previous = new HashMap<>();
+        Map<DeliveryRouteOptimizationApp.City, Integer> distances = new HashMap<>();
+        Set<DeliveryRouteOptimizationApp.City> unvisited = new HashSet<>(cities);
+        for (DeliveryRouteOptimizationApp.City city : cities) {
+            distances.put(city, Integer.MAX_VALUE);
+        }
+        distances.put(source, 0);
+        while (!unvisited.isEmpty()) {
+            DeliveryRouteOptimizationApp.City current = unvisited.stream()
+                    .min(Comparator.comparingInt(distances::get))
+                    .orElse(null);
+            unvisited.remove(current);
+            if (current.equals(destination)) {
+                break;
+            }
+            for (Map.Entry<DeliveryRouteOptimizationApp.City, Integer> entry : current.getConnections().entrySet()) {
+                DeliveryRouteOptimizationApp.City neighbor = entry.getKey();
+                if (unvisited.contains(neighbor)) {
+                    int newDist = distances.get(current) + entry.getValue();
+                    if (newDist < distances.get(neighbor)) {
+                        distances.put(neighbor, newDist);
+                        previous.put(neighbor, current);
+                    }
+                }
+            }
+        }
+        List<DeliveryRouteOptimizationApp.City> path = new ArrayList<>();
+        for (DeliveryRouteOptimizationApp.City at = destination; at != null; at = previous.get(at)) {
+            path.add(at);
+        }
+        Collections.reverse(path);
+        return path.size() > 1 && path.get(0).equals(source) ? path : Collections.emptyList();
+    }
+}
@@ -0,0 +1,116 @@
+/**
+ * IndexedMinHeap is a binary min-heap of integer ids (0 to capacity - 1) with long keys, which can lower the key of
+ * an id already in the heap. It is the priority queue behind `DijkstraRouter`.
+ *
+ * How it works:
+ * - `heap` holds the ids in heap order, `position` maps every id to its slot in `heap` (or -1 when absent), and
+ *   `key` holds the current key of every id, all as primitive arrays, so nothing is boxed or allocated per operation.
+ * - `push` inserts an id or lowers its key and sifts it up; `poll` removes the root and sifts the last id down. The
+ *   position array is updated on every swap, so a decrease-key finds its id in O(1) instead of searching.
+ * - Equal keys are ordered by id, so the order in which ids leave the heap never depends on insertion history.
+ *
+ * Time Complexity:
+ * O(log n) per push, decrease-key and poll; O(1) for contains.
+ */
+import java.util.Arrays;
+
+public final class IndexedMinHeap {
+
+    private final int[] heap;
+    private final int[] position;
+    private final long[] key;
+    private int size;
+
+    public IndexedMinHeap(int capacity) {
+        heap = new int[capacity];
+        position = new int[capacity];
+        key = new long[capacity];
+        Arrays.fill(position, -1);
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(int id) {
+        return position[id] >= 0;
+    }
+
+    // Inserts id with the given key, or lowers its key if it is already in the heap with a larger one
+    public void push(int id, long newKey) {
+        int slot = position[id];
+        if (slot < 0) {
+            slot = size++;
+            heap[slot] = id;
+            position[id] = slot;
+        } else if (newKey >= key[id]) {
+            return;
+        }
+        key[id] = newKey;
+        siftUp(slot);
+    }
+
+    // Removes and returns the id with the smallest key
+    public int poll() {
+        int min = heap[0];
+        int last = heap[--size];
+        position[min] = -1;
+        if (size > 0) {
+            heap[0] = last;
+            position[last] = 0;
+            siftDown(0);
+        }
+        return min;
+    }
+
+    // Removes every id, in O(size)
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            position[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private void siftUp(int slot) {
+        int id = heap[slot];
+        while (slot > 0) {
+            int parent = (slot - 1) >>> 1;
+            if (!less(id, heap[parent])) {
+                break;
+            }
+            move(heap[parent], slot);
+            slot = parent;
+        }
+        move(id, slot);
+    }
+
+    private void siftDown(int slot) {
+        int id = heap[slot];
+        int half = size >>> 1;
+        while (slot < half) {
+            int child = 2 * slot + 1;
+            if (child + 1 < size && less(heap[child + 1], heap[child])) {
+                child++;
+            }
+            if (!less(heap[child], id)) {
+                break;
+            }
+            move(heap[child], slot);
+            slot = child;
+        }
+        move(id, slot);
+    }
+
+    private void move(int id, int slot) {
+        heap[slot] = id;
+        position[id] = slot;
+    }
+
+    private boolean less(int a, int b) {
+        return key[a] < key[b] || key[a] == key[b] && a < b;
+    }
+}
@@ -0,0 +1,154 @@
+/**
+ * RouteGraph is a compiled, read-only snapshot of the city network that the routing algorithms run on, in place of
+ * the object graph of `DeliveryRouteOptimizationApp.City` instances and their `HashMap<City, Integer>` connections.
+ *
+ * Layout:
+ * - Every city gets a dense id from 0 to n - 1; `names[id]` is its name and a name-to-id map is built once, so
+ *   lookups by name happen only for the source and destination, never inside an algorithm.
+ * - Coordinates are in `xs[id]` and `ys[id]`.
+ * - Roads are in compressed sparse row (CSR) form: the roads leaving city `id` are the indices
+ *   `offsets[id]` to `offsets[id + 1] - 1` of `targets` (the neighbor's id) and `weights` (the distance). A road
+ *   therefore costs 8 bytes instead of a HashMap node, a table slot and a boxed Integer, and the roads of a city
+ *   sit next to each other in memory.
+ *
+ * `compile` keeps the roads of every city in the iteration order of its connections map, so algorithms that scan
+ * roads in order and keep the first of equal candidates (such as the nearest-neighbor tour) make the same choices
+ * as on the object graph.
+ *
+ * The `main` method compares the memory of both representations for a generated network.
+ *
+ * Time Complexity:
+ * O(V + E) to compile; O(1) to find the roads of a city.
+ */
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public final class RouteGraph {
+
+    final String[] names;
+    final int[] xs;
+    final int[] ys;
+    final int[] offsets; // n + 1 entries: the roads of city i are offsets[i] until offsets[i + 1]
+    final int[] targets;
+    final int[] weights;
+    private final Map<String, Integer> ids;
+
+    RouteGraph(String[] names, int[] xs, int[] ys, int[] offsets, int[] targets, int[] weights) {
+        this.names = names;
+        this.xs = xs;
+        this.ys = ys;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.ids = new HashMap<>(2 * names.length);
+        for (int i = 0; i < names.length; i++) {
+            ids.put(names[i], i);
+        }
+    }
+
+    // Snapshot of the cities of the map and their connections; cities get ids in the map's iteration order
+    public static RouteGraph compile(Map<String, DeliveryRouteOptimizationApp.City> cityMap) {
+        int n = cityMap.size();
+        String[] names = new String[n];
+        int[] xs = new int[n];
+        int[] ys = new int[n];
+        // City does not override equals or hashCode, so cities are told apart by identity
+        Map<DeliveryRouteOptimizationApp.City, Integer> ids = new IdentityHashMap<>(2 * n);
+        List<DeliveryRouteOptimizationApp.City> cities = new ArrayList<>(cityMap.values());
+        int[] offsets = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            DeliveryRouteOptimizationApp.City city = cities.get(i);
+            ids.put(city, i);
+            names[i] = city.getName();
+            xs[i] = city.getX();
+            ys[i] = city.getY();
+            offsets[i + 1] = offsets[i] + city.getConnections().size();
+        }
+        int[] targets = new int[offsets[n]];
+        int[] weights = new int[offsets[n]];
+        for (int i = 0; i < n; i++) {
+            int road = offsets[i];
+            for (Map.Entry<DeliveryRouteOptimizationApp.City, Integer> entry : cities.get(i).getConnections().entrySet()) {
+                Integer target = ids.get(entry.getKey());
+                if (target == null) {
+                    throw new IllegalArgumentException(names[i] + " is connected to a city that is not in the map: "
+                            + entry.getKey().getName());
+                }
+                targets[road] = target;
+                weights[road] = entry.getValue();
+                road++;
+            }
+        }
+        return new RouteGraph(names, xs, ys, offsets, targets, weights);
+    }
+
+    public int cityCount() {
+        return names.length;
+    }
+
+    public int roadCount() {
+        return targets.length;
+    }
+
+    // Id of the named city, or -1 if there is no such city
+    public int idOf(String name) {
+        Integer id = ids.get(name);
+        return id == null ? -1 : id;
+    }
+
+    public String nameOf(int id) {
+        return names[id];
+    }
+
+    // Benchmark: heap used by the object graph and by its snapshot for a generated network (default 100,000 cities)
+    public static void main(String[] args) {
+        int n = args.length == 0 ? 100_000 : Integer.parseInt(args[0]);
+        int roadsPerCity = 4;
+        Random random = new Random(n);
+
+        long baseline = usedHeap();
+        Map<String, DeliveryRouteOptimizationApp.City> cityMap = new HashMap<>();
+        List<DeliveryRouteOptimizationApp.City> cities = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            DeliveryRouteOptimizationApp.City city = new DeliveryRouteOptimizationApp.City("City" + i, random.nextInt(10_000), random.nextInt(10_000));
+            cities.add(city);
+            cityMap.put(city.getName(), city);
+        }
+        long withoutRoads = usedHeap();
+        for (DeliveryRouteOptimizationApp.City city : cities) {
+            while (city.getConnections().size() < roadsPerCity) {
+                city.addConnection(cities.get(random.nextInt(n)), 1 + random.nextInt(5_000));
+            }
+        }
+        long objectBytes = usedHeap() - baseline;
+        long objectRoadBytes = baseline + objectBytes - withoutRoads;
+
+        long start = System.nanoTime();
+        RouteGraph graph = compile(cityMap);
+        double compileMillis = (System.nanoTime() - start) / 1e6;
+        cityMap = null;
+        cities = null;
+        // The names are shared with the City objects, so the snapshot is measured once the object graph is gone
+        long snapshotBytes = usedHeap() - baseline;
+        long snapshotRoadBytes = 4L * (graph.offsets.length + graph.targets.length + graph.weights.length);
+
+        int roads = graph.roadCount();
+        System.out.printf("%,d cities, %,d roads, compiled in %.1f ms%n", graph.cityCount(), roads, compileMillis);
+        System.out.printf("roads:        %6.1f bytes per road in connection maps, %4.1f in CSR arrays (%.1fx less)%n",
+                (double) objectRoadBytes / roads, (double) snapshotRoadBytes / roads, (double) objectRoadBytes / snapshotRoadBytes);
+        System.out.printf("whole graph:  %,12d bytes as objects, %,12d as snapshot, names included (%.1fx less)%n",
+                objectBytes, snapshotBytes, (double) objectBytes / snapshotBytes);
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}